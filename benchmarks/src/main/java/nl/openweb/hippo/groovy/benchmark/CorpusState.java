@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import nl.openweb.hippo.groovy.ScriptClassFactory;
+import nl.openweb.hippo.groovy.YamlGenerator;
+import nl.openweb.hippo.groovy.model.ScriptClass;
+
+/**
+ * A script of the selected corpus written to a temporary directory, with every intermediate result of the pipeline
+ * prepared, so each benchmark only measures its own step
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+    @Param({"SMALL", "LARGE", "MANY_ANNOTATIONS"})
+    public ScriptCorpus corpus;
+
+    Path dir;
+    File file;
+    String script;
+    ScriptClass scriptClass;
+    Map<String, Map<String, Object>> yaml;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("groovy-updater-benchmark");
+        file = corpus.write(dir, 1)[0];
+        script = ScriptClassFactory.readFileEnsuringLinuxLineEnding(file);
+        scriptClass = ScriptClassFactory.getInterpretingClass(file);
+        yaml = YamlGenerator.getUpdateYamlScript(dir.toFile(), scriptClass);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir.toFile());
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.sling.testing.mock.jcr.MockJcr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.openweb.hippo.groovy.GroovyFilesImportResult;
+import nl.openweb.hippo.groovy.GroovyFilesService;
+import nl.openweb.hippo.groovy.GroovyFilesServiceImpl;
+import nl.openweb.hippo.groovy.watch.GroovyFilesWatcher;
+import nl.openweb.hippo.groovy.watch.GroovyFilesWatcherConfig;
+
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.DEFAULT_DEBOUNCE_MAX_LATENCY_MILLIS;
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.DEFAULT_IMPORT_BATCH_SIZE;
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.DEFAULT_MAX_FILE_LENGTH_KB;
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.DEFAULT_WATCH_DELAY_MILLIS;
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.PROJECT_BASEDIR_PROPERTY;
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.SCRIPT_FILES_LOCATION_IN_MODULE;
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.SCRIPT_ROOT;
+
+/**
+ * Measures the time from saving a burst of scripts until the updater nodes have been saved in a mocked repository.
+ * The sample time mode reports the latency percentiles of a burst, the throughput mode the number of bursts per
+ * second.
+ */
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroovyFilesWatcherBenchmark {
+
+    private static final String MODULE = "updater";
+    private static final long RELOAD_TIMEOUT_MILLIS = 30000L;
+
+    /**
+     * How the changed files reach the watcher
+     */
+    public enum Backend {
+        /**
+         * The changed paths are passed to the watcher directly, without observing the file system
+         */
+        DIRECT,
+        /**
+         * The file system is observed with a watch service
+         */
+        WATCH_SERVICE,
+        /**
+         * The file system is observed by polling
+         */
+        POLLER
+    }
+
+    @Param({"DIRECT", "WATCH_SERVICE", "POLLER"})
+    public Backend backend;
+
+    @Param({"100"})
+    public int scriptCount;
+
+    @Param({"1", "10"})
+    public int burstSize;
+
+    @Param({"0", "300"})
+    public long debounceQuietMillis;
+
+    private final Set<File> pendingFiles = new HashSet<>();
+    private Path baseDir;
+    private Path scriptsDir;
+    private File[] scripts;
+    private GroovyFilesWatcher watcher;
+    private int nextScript;
+    private int revision;
+    private long lastModified;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, RepositoryException {
+        baseDir = Files.createTempDirectory("groovy-updater-sync-benchmark");
+        scriptsDir = baseDir.resolve(MODULE).resolve(SCRIPT_FILES_LOCATION_IN_MODULE).resolve("scripts");
+        scripts = ScriptCorpus.SMALL.write(scriptsDir, scriptCount);
+        lastModified = System.currentTimeMillis();
+
+        final Session session = MockJcr.newSession();
+        Node node = session.getRootNode();
+        for (final String name : SCRIPT_ROOT.substring(1).split("/")) {
+            node = node.addNode(name);
+        }
+        final GroovyFilesServiceImpl service = new GroovyFilesServiceImpl();
+        service.importGroovyFiles(session, scriptsDir.toFile());
+
+        if (backend == Backend.DIRECT) {
+            System.clearProperty(PROJECT_BASEDIR_PROPERTY);
+        } else {
+            System.setProperty(PROJECT_BASEDIR_PROPERTY, baseDir.toString());
+        }
+        watcher = new GroovyFilesWatcher(new BenchmarkConfig(), new SignallingService(service), session);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        watcher.shutdown();
+        System.clearProperty(PROJECT_BASEDIR_PROPERTY);
+        FileUtils.deleteDirectory(baseDir.toFile());
+    }
+
+    @Benchmark
+    public void reloadBurst() throws IOException, InterruptedException {
+        final Set<Path> changedPaths = new LinkedHashSet<>();
+        revision++;
+        for (int i = 0; i < burstSize; i++) {
+            final int index = nextScript++ % scripts.length;
+            final File script = scripts[index];
+            synchronized (pendingFiles) {
+                pendingFiles.add(script);
+            }
+            final String content = ScriptCorpus.SMALL.getScript(index) + "// revision " + revision + "\n";
+            Files.write(script.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            // make every save visible to the poller, regardless of the time resolution of the file system
+            lastModified += 1000L;
+            Files.setLastModifiedTime(script.toPath(), FileTime.fromMillis(lastModified));
+            changedPaths.add(script.toPath());
+        }
+        if (backend == Backend.DIRECT) {
+            watcher.onPathsChanged(scriptsDir.getParent(), changedPaths);
+        }
+        awaitReload();
+    }
+
+    private void awaitReload() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + RELOAD_TIMEOUT_MILLIS;
+        synchronized (pendingFiles) {
+            while (!pendingFiles.isEmpty()) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Scripts not reloaded within " + RELOAD_TIMEOUT_MILLIS + " ms: " + pendingFiles);
+                }
+                pendingFiles.wait(remaining);
+            }
+        }
+    }
+
+    /**
+     * Passes everything on to the actual service, and signals the benchmark when changed scripts have been saved
+     */
+    private class SignallingService implements GroovyFilesService {
+
+        private final GroovyFilesService service;
+
+        SignallingService(final GroovyFilesService service) {
+            this.service = service;
+        }
+
+        @Override
+        public void importGroovyFiles(final Session session, final File file) {
+            service.importGroovyFiles(session, file);
+        }
+
+        @Override
+        public boolean importGroovyFile(final Session session, final File file) throws RepositoryException {
+            return service.importGroovyFile(session, file);
+        }
+
+        @Override
+        public GroovyFilesImportResult importGroovyFiles(final Session session, final Collection<File> files,
+                                                         final int batchSize, final int threads) {
+            final GroovyFilesImportResult result = service.importGroovyFiles(session, files, batchSize, threads);
+            synchronized (pendingFiles) {
+                pendingFiles.removeAll(result.getImported());
+                pendingFiles.removeAll(result.getUnchanged());
+                pendingFiles.notifyAll();
+            }
+            return result;
+        }
+    }
+
+    private class BenchmarkConfig implements GroovyFilesWatcherConfig {
+
+        @Override
+        public List<String> getWatchedModules() {
+            return Collections.singletonList(MODULE);
+        }
+
+        @Override
+        public List<String> getIncludedFiles() {
+            return Arrays.asList("*.groovy", "*.json");
+        }
+
+        @Override
+        public List<String> getExcludedDirectories() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getUseWatchServiceOnOsNames() {
+            return backend == Backend.POLLER ? Collections.emptyList() : Collections.singletonList("*");
+        }
+
+        @Override
+        public long getWatchDelayMillis() {
+            return DEFAULT_WATCH_DELAY_MILLIS;
+        }
+
+        @Override
+        public long getMaxFileLengthBytes() {
+            return DEFAULT_MAX_FILE_LENGTH_KB * 1024;
+        }
+
+        @Override
+        public int getImportBatchSize() {
+            return DEFAULT_IMPORT_BATCH_SIZE.intValue();
+        }
+
+        @Override
+        public int getImportThreads() {
+            return 1;
+        }
+
+        @Override
+        public long getDebounceQuietMillis() {
+            return debounceQuietMillis;
+        }
+
+        @Override
+        public long getDebounceMaxLatencyMillis() {
+            return DEFAULT_DEBOUNCE_MAX_LATENCY_MILLIS;
+        }
+    }
+}
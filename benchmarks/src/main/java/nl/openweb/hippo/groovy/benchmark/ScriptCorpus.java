@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Synthetic updater scripts of different shapes, to benchmark the parse and generate pipeline with
+ */
+public enum ScriptCorpus {
+    /**
+     * A short script with a single updater annotation, like most scripts in a project
+     */
+    SMALL {
+        @Override
+        String getScript(final int index) {
+            return header(index) +
+                "@Updater(name = \"Small Updater " + index + "\", xpath = \"//element(*, hippo:document)\")\n" +
+                classStart(index) + visitMethods() + "}\n";
+        }
+    },
+    /**
+     * A long script with triple quoted blocks that look like annotations, which the stripping has to skip
+     */
+    LARGE {
+        @Override
+        String getScript(final int index) {
+            final StringBuilder builder = new StringBuilder(header(index))
+                .append("@Updater(name = \"Large Updater ").append(index).append("\",\n")
+                .append("        xpath = \"//element(*, hippo:document)\",\n")
+                .append("        description = '''This script does a lot.\n")
+                .append("            It mentions @Updater(name = \"Fake\") and @Bootstrap(reload = true) in its description''')\n")
+                .append("@Bootstrap(reload = true, version = \"").append(index).append("\")\n")
+                .append(classStart(index));
+            for (int i = 0; i < LARGE_BLOCKS; i++) {
+                builder.append("    static final String TEMPLATE_").append(i).append(" = '''\n")
+                    .append("        @Updater(name = \"Template ").append(i).append("\")\n")
+                    .append("        class Template").append(i).append(" {\n")
+                    .append("            // a block the size of a typical query or html template\t\r\n")
+                    .append("        }\n")
+                    .append("    '''\n")
+                    .append("    static final String QUERY_").append(i).append(" = \"\"\"\n")
+                    .append("        //element(*, hippo:document)[@hippo:availability = 'live' and @id = '").append(i).append("']\n")
+                    .append("    \"\"\"\n\n");
+            }
+            return builder.append(visitMethods()).append("}\n").toString();
+        }
+    },
+    /**
+     * A script with every updater and bootstrap attribute set, surrounded by annotations that are not ours
+     */
+    MANY_ANNOTATIONS {
+        @Override
+        String getScript(final int index) {
+            return header(index) +
+                "import groovy.transform.CompileStatic\n" +
+                "import groovy.transform.TypeChecked\n\n" +
+                "//@Updater(name = \"Commented Out\")\n" +
+                "/*\n * @Bootstrap(contentroot = \"registry\")\n */\n" +
+                "@TypeChecked\n" +
+                "@Updater(name = \"Annotated Updater " + index + "\",\n" +
+                "        path = \"/content/documents\",\n" +
+                "        description = \"\"\"Every attribute is set\"\"\",\n" +
+                "        batchSize = 50L,\n" +
+                "        throttle = 200L,\n" +
+                "        dryRun = true,\n" +
+                "        mixin = \"mix:referenceable, hippo:named\",\n" +
+                "        logTarget = Updater.LogTarget.REPOSITORY,\n" +
+                "        parameters = \"" + PARAMETERS_FILE + "\")\n" +
+                "@Bootstrap(contentroot = Bootstrap.ContentRoot.QUEUE, reload = true, version = \"1." + index + "\")\n" +
+                "@SuppressWarnings(\"unused\")\n" +
+                classStart(index) +
+                "    @CompileStatic\n" +
+                "    @Override\n" +
+                "    boolean logSkippedNodePaths() {\n" +
+                "        return false\n" +
+                "    }\n\n" +
+                visitMethods() + "}\n";
+        }
+    };
+
+    static final String PARAMETERS_FILE = "parameters.json";
+    private static final int LARGE_BLOCKS = 200;
+
+    abstract String getScript(int index);
+
+    /**
+     * Write a number of scripts of this shape to a directory, together with the parameters file they may refer to
+     *
+     * @param dir   the directory to write to, it is created when missing
+     * @param count the number of scripts to write
+     * @return the files that were written
+     * @throws IOException when a file could not be written
+     */
+    public File[] write(final Path dir, final int count) throws IOException {
+        Files.createDirectories(dir);
+        Files.write(dir.resolve(PARAMETERS_FILE), "{\n  \"foobar\": [\"bar\", \"foo\"]\n}\n".getBytes(StandardCharsets.UTF_8));
+        final File[] files = new File[count];
+        for (int i = 0; i < count; i++) {
+            final Path file = dir.resolve(name().toLowerCase() + i + ".groovy");
+            Files.write(file, getScript(i).getBytes(StandardCharsets.UTF_8));
+            files[i] = file.toFile();
+        }
+        return files;
+    }
+
+    private static String header(final int index) {
+        return "import nl.openweb.hippo.groovy.annotations.Bootstrap\n" +
+            "import nl.openweb.hippo.groovy.annotations.Exclude\n" +
+            "import nl.openweb.hippo.groovy.annotations.Updater\n" +
+            "import org.onehippo.repository.update.BaseNodeUpdateVisitor\n\n" +
+            "import javax.jcr.Node\n\n" +
+            "// generated benchmark script " + index + "\n";
+    }
+
+    private static String classStart(final int index) {
+        return "class BenchmarkUpdater" + index + " extends BaseNodeUpdateVisitor {\n";
+    }
+
+    private static String visitMethods() {
+        return "    boolean doUpdate(Node node) {\n" +
+            "        log.info \"manipulate node < > & an %^&* /> {}\", node.path\n" +
+            "        return true\n" +
+            "    }\n\n" +
+            "    boolean undoUpdate(Node node) {\n" +
+            "        throw new UnsupportedOperationException('Updater does not implement undoUpdate method')\n" +
+            "    }\n";
+    }
+}
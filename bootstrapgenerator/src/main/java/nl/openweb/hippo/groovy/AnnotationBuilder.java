@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import nl.openweb.hippo.groovy.model.AnnotationSpan;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Builds annotation instances straight from the attribute values found by the {@link AnnotationScanner}, without
+ * compiling anything. Only constant values are supported: string literals without interpolation, numbers, booleans and
+ * enum constants. Anything else results in an {@link IllegalArgumentException}.
+ */
+public final class AnnotationBuilder {
+    private static final String TRIPLE_SINGLE_QUOTE = "'''";
+    private static final String TRIPLE_DOUBLE_QUOTE = "\"\"\"";
+
+    private AnnotationBuilder() {
+        //No instantiating of this class
+    }
+
+    /**
+     * Create an annotation instance of the given type from a scanned annotation
+     *
+     * @param type the annotation type
+     * @param span the scanned annotation
+     * @param <A>  annotation type
+     * @return the annotation
+     * @throws IllegalArgumentException when the attributes cannot be evaluated without compiling
+     */
+    public static <A extends Annotation> A build(final Class<A> type, final AnnotationSpan span) {
+        final Map<String, Object> values = new HashMap<>();
+        for (final Map.Entry<String, String> attribute : span.getAttributes().entrySet()) {
+            final Method member = getMember(type, attribute.getKey());
+            values.put(member.getName(), toValue(member.getReturnType(), attribute.getValue()));
+        }
+        for (final Method member : type.getDeclaredMethods()) {
+            if (!values.containsKey(member.getName()) && member.getDefaultValue() == null) {
+                throw new IllegalArgumentException("Missing attribute '" + member.getName() + "' for " + span.getText());
+            }
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new AnnotationHandler(type, values)));
+    }
+
+    private static Method getMember(final Class<?> type, final String name) {
+        try {
+            return type.getDeclaredMethod(name);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Unknown attribute '" + name + "' for @" + type.getSimpleName(), e);
+        }
+    }
+
+    private static Object toValue(final Class<?> type, final String value) {
+        if (type == String.class) {
+            return parseString(value);
+        } else if (type == long.class) {
+            return parseLong(value);
+        } else if (type == boolean.class) {
+            return parseBoolean(value);
+        } else if (type.isEnum()) {
+            return parseEnum(type, value);
+        }
+        throw new IllegalArgumentException("Unsupported attribute type " + type.getName());
+    }
+
+    private static String parseString(final String value) {
+        if (value.length() >= 6 && value.startsWith(TRIPLE_SINGLE_QUOTE) && value.endsWith(TRIPLE_SINGLE_QUOTE)) {
+            return unescape(value.substring(3, value.length() - 3), TRIPLE_SINGLE_QUOTE, false);
+        } else if (value.length() >= 6 && value.startsWith(TRIPLE_DOUBLE_QUOTE) && value.endsWith(TRIPLE_DOUBLE_QUOTE)) {
+            return unescape(value.substring(3, value.length() - 3), TRIPLE_DOUBLE_QUOTE, true);
+        } else if (value.length() >= 2 && value.startsWith("'") && value.endsWith("'")) {
+            return unescape(value.substring(1, value.length() - 1), "'", false);
+        } else if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return unescape(value.substring(1, value.length() - 1), "\"", true);
+        }
+        throw new IllegalArgumentException("Not a string literal: " + value);
+    }
+
+    private static String unescape(final String body, final String quote, final boolean interpolating) {
+        final StringBuilder result = new StringBuilder(body.length());
+        for (int i = 0; i < body.length(); i++) {
+            final char c = body.charAt(i);
+            if (c == '\\' && i + 1 < body.length()) {
+                i = appendEscaped(result, body, i + 1);
+            } else if (c == '$' && interpolating) {
+                throw new IllegalArgumentException("Interpolated strings are not constant: " + body);
+            } else if (body.startsWith(quote, i)) {
+                throw new IllegalArgumentException("Not a single string literal: " + body);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static int appendEscaped(final StringBuilder result, final String body, final int index) {
+        final char c = body.charAt(index);
+        switch (c) {
+            case 'n':
+                result.append('\n');
+                break;
+            case 't':
+                result.append('\t');
+                break;
+            case 'r':
+                result.append('\r');
+                break;
+            case 'b':
+                result.append('\b');
+                break;
+            case 'f':
+                result.append('\f');
+                break;
+            case '\n':
+                //line continuation
+                break;
+            case 'u':
+                if (index + 4 < body.length()) {
+                    result.append((char) Integer.parseInt(body.substring(index + 1, index + 5), 16));
+                    return index + 4;
+                }
+                throw new IllegalArgumentException("Invalid unicode escape: " + body);
+            case '\\':
+            case '\'':
+            case '"':
+            case '$':
+                result.append(c);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported escape \\" + c + " in: " + body);
+        }
+        return index;
+    }
+
+    private static long parseLong(final String value) {
+        String number = value.replace("_", "");
+        if (number.endsWith("L") || number.endsWith("l")) {
+            number = number.substring(0, number.length() - 1);
+        }
+        try {
+            return Long.decode(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number literal: " + value, e);
+        }
+    }
+
+    private static boolean parseBoolean(final String value) {
+        if ("true".equals(value) || "false".equals(value)) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new IllegalArgumentException("Not a boolean literal: " + value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parseEnum(final Class<?> type, final String value) {
+        final int separator = value.lastIndexOf('.');
+        final String qualifier = separator < 0 ? null : value.substring(0, separator);
+        if (qualifier == null || !(qualifier.equals(type.getSimpleName()) || qualifier.endsWith("." + type.getSimpleName()))) {
+            throw new IllegalArgumentException("Not a constant of " + type.getSimpleName() + ": " + value);
+        }
+        return Enum.valueOf((Class<? extends Enum>) type, value.substring(separator + 1));
+    }
+
+    private static class AnnotationHandler implements InvocationHandler {
+        private final Class<? extends Annotation> type;
+        private final Map<String, Object> values;
+
+        AnnotationHandler(final Class<? extends Annotation> type, final Map<String, Object> values) {
+            this.type = type;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Exception {
+            if (method.getParameterCount() == 1 && "equals".equals(method.getName())) {
+                return isEqual(args[0]);
+            } else if (method.getParameterCount() == 0) {
+                switch (method.getName()) {
+                    case "annotationType":
+                        return type;
+                    case "hashCode":
+                        return getHashCode();
+                    case "toString":
+                        return getString();
+                    default:
+                        return getValue(method);
+                }
+            }
+            throw new UnsupportedOperationException(method.toString());
+        }
+
+        private Object getValue(final Method member) {
+            final Object value = values.get(member.getName());
+            return value != null ? value : member.getDefaultValue();
+        }
+
+        private boolean isEqual(final Object other) throws Exception {
+            if (!type.isInstance(other)) {
+                return false;
+            }
+            for (final Method member : type.getDeclaredMethods()) {
+                if (!getValue(member).equals(member.invoke(other))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int getHashCode() {
+            int hashCode = 0;
+            for (final Method member : type.getDeclaredMethods()) {
+                hashCode += (127 * member.getName().hashCode()) ^ getValue(member).hashCode();
+            }
+            return hashCode;
+        }
+
+        private String getString() {
+            return "@" + type.getName() + Arrays.stream(type.getDeclaredMethods())
+                .map(member -> member.getName() + "=" + getValue(member))
+                .collect(joining(", ", "(", ")"));
+        }
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+import nl.openweb.hippo.groovy.annotations.Updater;
+import nl.openweb.hippo.groovy.model.AnnotationSpan;
+import nl.openweb.hippo.groovy.model.ScriptHeader;
+
+/**
+ * Scanner that walks a groovy script once, up to the declaration of the script class, and collects the top level
+ * annotations it finds on the way. The script class is the first class annotated as {@link Updater} or extending
+ * <code>BaseNodeUpdateVisitor</code>, so helper classes in front of it are passed. Comments and string literals are
+ * skipped, so anything that looks like an annotation inside them is ignored.
+ */
+public final class AnnotationScanner {
+    private static final String CLASS_KEYWORD = "class";
+    private static final String DEFAULT_ATTRIBUTE = "value";
+    private static final String TRIPLE_SINGLE_QUOTE = "'''";
+    private static final String TRIPLE_DOUBLE_QUOTE = "\"\"\"";
+    private static final String DOLLAR_SLASHY_END = "/$";
+    private static final int INITIAL_CHUNK_SIZE = 4096;
+    private static final int MAX_CHUNK_SIZE = 256 * 1024;
+    private static final Pattern UPDATE_VISITOR_DECLARATION =
+        Pattern.compile("\\s+[\\w$]+\\s+extends\\s+(?:[\\w$]+\\.)*BaseNodeUpdateVisitor\\b");
+
+    private final StringBuilder script;
+    private final List<AnnotationSpan> annotations = new ArrayList<>();
+    private int length;
+    private boolean complete;
+    private int pos;
+    private int depth;
+    private int firstClassStart = -1;
+    private int firstClassAnnotations;
+
+    private AnnotationScanner(final CharSequence script, final boolean complete) {
+        this.script = new StringBuilder(script);
+        this.length = script.length();
+        this.complete = complete;
+    }
+
+    /**
+     * Scan the header of the script, everything in front of the declaration of the script class. When there is no
+     * script class, the header ends at the first class declaration.
+     *
+     * @param script the script content
+     * @return the annotations found and the position of the class declaration
+     */
+    public static ScriptHeader scan(final String script) {
+        return new AnnotationScanner(script, true).scanHeader();
+    }
+
+    /**
+     * Scan all annotations of the script, wherever they are
+     *
+     * @param script the script content
+     * @return the annotations in order of appearance
+     */
+    public static List<AnnotationSpan> scanAnnotations(final String script) {
+        return new AnnotationScanner(script, true).scanAll();
+    }
+
+    /**
+     * Scan the header of a file, reading it in growing chunks only until the script class declaration has been read. The
+     * header is scanned with linux line endings, like the content read by
+     * {@link LineEndingNormalizer#read(Path, Charset, long)}. Each chunk is normalized and scanned once: the scan
+     * continues where the previous chunk ended.
+     *
+     * @param path      the file to scan
+     * @param charset   the charset of the file
+     * @param maxLength the maximum file size in bytes, 0 or less for no maximum
+     * @return the annotations found and the position of the class declaration
+     * @throws IOException when the file cannot be read or is larger than the maximum length
+     */
+    public static ScriptHeader scan(final Path path, final Charset charset, final long maxLength) throws IOException {
+        if (maxLength > 0 && Files.size(path) > maxLength) {
+            throw new IOException(String.format("File %s is larger than the maximum of %d bytes", path.toAbsolutePath(), maxLength));
+        }
+        final AnnotationScanner scanner = new AnnotationScanner(StringUtils.EMPTY, false);
+        // the characters read after the last line ending, which are normalized once their line is complete
+        final StringBuilder pending = new StringBuilder();
+        char[] chunk = new char[INITIAL_CHUNK_SIZE];
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), charset)) {
+            int read;
+            while ((read = reader.read(chunk)) != -1) {
+                pending.append(chunk, 0, read);
+                final int linesEnd = getLinesEnd(pending);
+                if (linesEnd > 0) {
+                    scanner.append(LineEndingNormalizer.normalize(pending.subSequence(0, linesEnd)));
+                    pending.delete(0, linesEnd);
+                    final ScriptHeader scriptHeader = scanner.scanHeader();
+                    if (scriptHeader != null) {
+                        return scriptHeader;
+                    }
+                }
+                if (chunk.length < MAX_CHUNK_SIZE) {
+                    chunk = new char[chunk.length * 2];
+                }
+            }
+        }
+        scanner.append(LineEndingNormalizer.normalize(pending));
+        scanner.complete = true;
+        return scanner.scanHeader();
+    }
+
+    /**
+     * @return the length of the complete lines in the text, a CR at the very end may still be followed by a LF
+     */
+    private static int getLinesEnd(final CharSequence text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            final char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && i + 1 < text.length())) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void append(final CharSequence text) {
+        script.append(text);
+        length = script.length();
+    }
+
+    /**
+     * Continue scanning where the previous scan stopped. A token that reaches the end of an incomplete script is scanned
+     * again when more of the script has been appended, as it may continue there.
+     *
+     * @return the header, or null when the script is incomplete and its script class has not been read yet
+     */
+    private ScriptHeader scanHeader() {
+        while (pos < length) {
+            final int tokenStart = pos;
+            final char c = script.charAt(pos);
+            AnnotationSpan annotation = null;
+            boolean classKeyword = false;
+            if (isCommentStart()) {
+                skipComment();
+            } else if (isStringStart()) {
+                skipString();
+            } else if (c == '@') {
+                annotation = readAnnotation();
+            } else if (Character.isJavaIdentifierStart(c)) {
+                skipIdentifier();
+                classKeyword = depth == 0 && isClassKeyword(tokenStart);
+            } else {
+                pos++;
+            }
+            final int bodyStart = classKeyword ? script.indexOf("{", pos) : -1;
+            if (!complete && (pos >= length || (classKeyword && bodyStart < 0))) {
+                pos = tokenStart;
+                return null;
+            }
+            if (annotation != null && depth == 0) {
+                annotations.add(annotation);
+            } else if (classKeyword) {
+                if (isScriptClass(bodyStart)) {
+                    return new ScriptHeader(annotations, tokenStart);
+                }
+                if (firstClassStart < 0) {
+                    firstClassStart = tokenStart;
+                    firstClassAnnotations = annotations.size();
+                }
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            }
+        }
+        if (!complete) {
+            return null;
+        }
+        return firstClassStart < 0 ? new ScriptHeader(annotations, -1) :
+            new ScriptHeader(annotations.subList(0, firstClassAnnotations), firstClassStart);
+    }
+
+    private List<AnnotationSpan> scanAll() {
+        while (pos < length) {
+            if (isCommentStart()) {
+                skipComment();
+            } else if (isStringStart()) {
+                skipString();
+            } else if (script.charAt(pos) == '@') {
+                final AnnotationSpan annotation = readAnnotation();
+                if (annotation != null) {
+                    annotations.add(annotation);
+                }
+            } else {
+                pos++;
+            }
+        }
+        return annotations;
+    }
+
+    private boolean startsWith(final String prefix, final int offset) {
+        if (offset < 0 || offset + prefix.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (script.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isClassKeyword(final int start) {
+        return pos - start == CLASS_KEYWORD.length() && startsWith(CLASS_KEYWORD, start)
+            && (start == 0 || script.charAt(start - 1) != '.');
+    }
+
+    /**
+     * @param bodyStart the position of the opening brace of the class body, -1 if there is none
+     * @return whether the class declared at the current position is annotated as updater or is an update visitor
+     */
+    private boolean isScriptClass(final int bodyStart) {
+        for (final AnnotationSpan annotation : annotations) {
+            if (annotation.getName().equals(Updater.class.getSimpleName())
+                || annotation.getName().equals(Updater.class.getCanonicalName())) {
+                return true;
+            }
+        }
+        return bodyStart >= 0 && UPDATE_VISITOR_DECLARATION.matcher(script).region(pos, bodyStart).lookingAt();
+    }
+
+    private AnnotationSpan readAnnotation() {
+        final int start = pos++;
+        if (pos >= length || !Character.isJavaIdentifierStart(script.charAt(pos))) {
+            return null;
+        }
+        final int nameStart = pos;
+        while (pos < length && (Character.isJavaIdentifierPart(script.charAt(pos)) || script.charAt(pos) == '.')) {
+            pos++;
+        }
+        final String name = script.substring(nameStart, pos);
+        if ("interface".equals(name)) {
+            return null;
+        }
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        final int payloadStart = skipWhitespace(pos);
+        if (payloadStart < length && script.charAt(payloadStart) == '(') {
+            pos = payloadStart + 1;
+            readAttributes(attributes);
+        } else if (payloadStart >= length && !complete) {
+            // the attributes may still follow
+            pos = length;
+        }
+        return new AnnotationSpan(name, start, pos, script.substring(start, pos), attributes);
+    }
+
+    private void readAttributes(final Map<String, String> attributes) {
+        final StringBuilder attribute = new StringBuilder();
+        int depth = 0;
+        while (pos < length) {
+            if (isCommentStart()) {
+                skipComment();
+                continue;
+            }
+            if (isStringStart()) {
+                final int start = pos;
+                skipString();
+                attribute.append(script, start, pos);
+                continue;
+            }
+            final char c = script.charAt(pos++);
+            if (depth == 0 && c == ')') {
+                break;
+            } else if (depth == 0 && c == ',') {
+                addAttribute(attributes, attribute.toString());
+                attribute.setLength(0);
+                continue;
+            } else if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+            }
+            attribute.append(c);
+        }
+        addAttribute(attributes, attribute.toString());
+    }
+
+    private static void addAttribute(final Map<String, String> attributes, final String attribute) {
+        final String text = attribute.trim();
+        if (text.isEmpty()) {
+            return;
+        }
+        int nameEnd = 0;
+        while (nameEnd < text.length() && Character.isJavaIdentifierPart(text.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        int assign = nameEnd;
+        while (assign < text.length() && Character.isWhitespace(text.charAt(assign))) {
+            assign++;
+        }
+        if (nameEnd > 0 && assign < text.length() && text.charAt(assign) == '='
+            && (assign + 1 == text.length() || text.charAt(assign + 1) != '=')) {
+            attributes.put(text.substring(0, nameEnd), text.substring(assign + 1).trim());
+        } else {
+            attributes.put(DEFAULT_ATTRIBUTE, text);
+        }
+    }
+
+    private boolean isCommentStart() {
+        if (script.charAt(pos) != '/' || pos + 1 >= length) {
+            return false;
+        }
+        final char next = script.charAt(pos + 1);
+        return next == '/' || next == '*';
+    }
+
+    private void skipComment() {
+        if (script.charAt(pos + 1) == '/') {
+            final int lineEnd = script.indexOf("\n", pos);
+            pos = lineEnd < 0 ? length : lineEnd;
+        } else {
+            final int commentEnd = script.indexOf("*/", pos + 2);
+            pos = commentEnd < 0 ? length : commentEnd + 2;
+        }
+    }
+
+    private boolean isStringStart() {
+        final char c = script.charAt(pos);
+        return c == '\'' || c == '"' || (c == '$' && pos + 1 < length && script.charAt(pos + 1) == '/');
+    }
+
+    private void skipString() {
+        final char quote = script.charAt(pos);
+        if (quote == '$') {
+            final int stringEnd = script.indexOf(DOLLAR_SLASHY_END, pos + 2);
+            pos = stringEnd < 0 ? length : stringEnd + DOLLAR_SLASHY_END.length();
+            return;
+        }
+        final String triple = quote == '"' ? TRIPLE_DOUBLE_QUOTE : TRIPLE_SINGLE_QUOTE;
+        final boolean multiline = startsWith(triple, pos);
+        pos += multiline ? triple.length() : 1;
+        while (pos < length) {
+            final char c = script.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+            } else if (c == quote && (!multiline || startsWith(triple, pos))) {
+                pos += multiline ? triple.length() : 1;
+                return;
+            } else if (c == '\n' && !multiline) {
+                return;
+            } else if (c == '$' && quote == '"' && pos + 1 < length && script.charAt(pos + 1) == '{') {
+                pos++;
+                skipBlock();
+            } else {
+                pos++;
+            }
+        }
+        pos = Math.min(pos, length);
+    }
+
+    private void skipBlock() {
+        int depth = 0;
+        while (pos < length) {
+            if (isCommentStart()) {
+                skipComment();
+            } else if (isStringStart()) {
+                skipString();
+            } else {
+                final char c = script.charAt(pos++);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void skipIdentifier() {
+        pos++;
+        while (pos < length && Character.isJavaIdentifierPart(script.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private int skipWhitespace(final int from) {
+        int index = from;
+        while (index < length && Character.isWhitespace(script.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy;
+
+import java.io.File;
+
+import nl.openweb.hippo.groovy.annotations.Bootstrap;
+
+/**
+ * Settings of a single generation run. Unlike {@link Generator#setDefaultContentRoot(Bootstrap.ContentRoot)}, a
+ * context is not shared, so runs with different settings can generate at the same time.
+ */
+public final class GenerationContext {
+    private final File sourceDir;
+    private final Bootstrap.ContentRoot defaultContentRoot;
+    private final long maxFileLength;
+
+    /**
+     * @param sourceDir the directory to read the scripts and resources from
+     */
+    public GenerationContext(final File sourceDir) {
+        this(sourceDir, null);
+    }
+
+    /**
+     * @param sourceDir          the directory to read the scripts and resources from
+     * @param defaultContentRoot the content root of scripts that do not specify one, null for
+     *                           {@link Generator#getDefaultContentRoot()}
+     */
+    public GenerationContext(final File sourceDir, final Bootstrap.ContentRoot defaultContentRoot) {
+        this(sourceDir, defaultContentRoot, 0);
+    }
+
+    /**
+     * @param sourceDir          the directory to read the scripts and resources from
+     * @param defaultContentRoot the content root of scripts that do not specify one, null for
+     *                           {@link Generator#getDefaultContentRoot()}
+     * @param maxFileLength      the maximum size in bytes of a referenced resource, 0 or less for no maximum
+     */
+    public GenerationContext(final File sourceDir, final Bootstrap.ContentRoot defaultContentRoot, final long maxFileLength) {
+        this.sourceDir = sourceDir;
+        this.defaultContentRoot = defaultContentRoot != null ? defaultContentRoot : Generator.getDefaultContentRoot();
+        this.maxFileLength = maxFileLength;
+    }
+
+    public File getSourceDir() {
+        return sourceDir;
+    }
+
+    public Bootstrap.ContentRoot getDefaultContentRoot() {
+        return defaultContentRoot;
+    }
+
+    public long getMaxFileLength() {
+        return maxFileLength;
+    }
+
+    /**
+     * @param bootstrap the bootstrap annotation of a script
+     * @return the content root of the bootstrap, or the default content root if it does not specify one
+     */
+    public Bootstrap.ContentRoot getContentroot(final Bootstrap bootstrap) {
+        return Bootstrap.ContentRoot.DEFAULT.equals(bootstrap.contentroot()) ? defaultContentRoot : bootstrap.contentroot();
+    }
+
+}
@@ -16,16 +16,13 @@
 
 package nl.openweb.hippo.groovy;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.IOException;
-import java.io.StringReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FilenameUtils;
@@ -34,57 +31,56 @@ import org.apache.commons.lang3.StringUtils;
 import nl.openweb.hippo.groovy.annotations.Bootstrap;
 import nl.openweb.hippo.groovy.annotations.Exclude;
 import nl.openweb.hippo.groovy.annotations.Updater;
+import nl.openweb.hippo.groovy.model.AnnotationSpan;
+import nl.openweb.hippo.groovy.model.ScriptHeader;
 
-import static nl.openweb.hippo.groovy.model.Constants.Files.GROOVY_EXTENSION;
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
 public abstract class Generator {
     protected static final String NEWLINE = "\n";
     private static final List<Class<?>> ANNOTATED_CLASSES = Arrays.asList(Exclude.class, Bootstrap.class, Updater.class, Bootstrap.ContentRoot.class);
     private static final String HIPPO_CONFIGURATION_UPDATE_PATH_PREFIX = "/hippo:configuration/hippo:update/hippo:";
     private static final String REGEX_WHITESPACE = "\\s*";
-    private static final String REGEX_ANNOTATIONS_SNIPPET = "(?:[\\w\\W]+[\\n|;]" + REGEX_WHITESPACE + "import [\\w.]+[;|\\n]+)?(?=[\\w\\W]*@[\\w.]*Updater)([\\w\\W]*)(?=(?:public )?class \\w+ extends [\\w\\W]+" + REGEX_WHITESPACE + "\\{)";
-    private static final String REGEX_ATTR_NAME = "([A-Za-z]\\w*)";
-    private static final String REGEX_ATTR_VALUE_SINGLEQUOTE = "('.*?(?<!\\\\)('))";
-    private static final String REGEX_ATTR_VALUE_QUOTE = "(\".*?(?<!\\\\)(\"))";
-    private static final String REGEX_ATTR_VALUE_TRIPQUOTE = "('''([\\s\\S]*)''')";
-    private static final String REGEX_ATTR_VALUE_SIMPLE = "true|false|([^,^\\)]+)";
-    private static final String REGEX_COMMA = REGEX_WHITESPACE + ",*" + REGEX_WHITESPACE;
-    private static final String REGEX_ATTR_VALUE = "("
-        + REGEX_ATTR_VALUE_SINGLEQUOTE
-        + "|"
-        + REGEX_ATTR_VALUE_QUOTE
-        + "|"
-        + REGEX_ATTR_VALUE_TRIPQUOTE
-        + "|"
-        + REGEX_ATTR_VALUE_SIMPLE
-        + ")?";
-    private static final String REGEX_ATTRIBUTES = REGEX_WHITESPACE + REGEX_ATTR_NAME + REGEX_WHITESPACE + "=" + REGEX_WHITESPACE + REGEX_ATTR_VALUE + REGEX_COMMA;
-    private static final String ANNOTATION_PAYLOAD = "(?:" + REGEX_WHITESPACE + "\\((" + REGEX_ATTRIBUTES + ")*\\))?";
+    private static final String CLASS_LINE_START = "class";
+    private static final String CLASS_DECLARATION = NEWLINE + "class ";
+    private static final Pattern ANNOTATION_IMPORTS = Pattern.compile(ANNOTATED_CLASSES.stream()
+        .map(clazz -> Pattern.quote(clazz.getCanonicalName()))
+        .collect(joining("|", "import" + REGEX_WHITESPACE + "(?:", ")" + REGEX_WHITESPACE + "[;]?" + NEWLINE)));
+    private static final Pattern MULTIPLE_NEWLINES = Pattern.compile("(" + NEWLINE + "){3,}");
 
     protected static Bootstrap.ContentRoot defaultContentRoot = Bootstrap.ContentRoot.QUEUE;
 
     protected Generator() {
     }
 
-    public static List<String> getAnnotations(final String script){
-        //Strip comments
-        String codeBlock = script.replaceAll("\\s/\\*[\\w\\W]*\\*/", StringUtils.EMPTY);
-        if(codeBlock.startsWith("/*")) {
-            codeBlock = StringUtils.substringAfter(codeBlock, "*/");
-        }
-        codeBlock = codeBlock.replaceAll("\\n//.*", StringUtils.EMPTY);
-        final Matcher matcher = Pattern.compile(REGEX_ANNOTATIONS_SNIPPET).matcher(codeBlock);
+    /**
+     * Obtain the annotations of the script, as written in the script. Only annotations of the script class are
+     * returned, and only if the script is an updater.
+     *
+     * @param script the script content
+     * @return the annotations, in order of {@link #getAnnotationClasses()}
+     */
+    public static List<String> getAnnotations(final String script) {
         final List<String> annotationStrings = new ArrayList<>();
-        if(matcher.find()) {
-            final String snippet = matcher.group(1);
+        for (final AnnotationSpan annotation : getAnnotationSpans(AnnotationScanner.scan(script))) {
+            annotationStrings.add(annotation.getText());
+        }
+        return annotationStrings;
+    }
+
+    private static List<AnnotationSpan> getAnnotationSpans(final ScriptHeader header) {
+        final List<AnnotationSpan> annotations = new ArrayList<>();
+        if (header.isUpdater()) {
             for (final Class<?> annotationClass : getAnnotationClasses()) {
-                final String annotation = getAnnotation(snippet, annotationClass);
-                if (StringUtils.isNotBlank(annotation)) {
-                    annotationStrings.add(annotation);
+                final AnnotationSpan annotation = header.getAnnotation(annotationClass);
+                if (annotation != null) {
+                    annotations.add(annotation);
                 }
             }
         }
-        return annotationStrings;
+        return annotations;
     }
 
     public static String stripAnnotations(final String script) {
@@ -92,54 +88,79 @@ public abstract class Generator {
     }
 
     public static String stripAnnotations(final String script, final boolean keepSpaces) {
-        String result = script;
-        for (String annotation : getAnnotations(script)) {
-            result = result.replace("\n" + annotation, StringUtils.EMPTY);
-            result = result.replace(annotation, StringUtils.EMPTY);
-        }
-        for (final Class<?> aClass : getAnnotationClasses()) {
-            result = result.replaceAll("import" + REGEX_WHITESPACE + aClass.getCanonicalName() + REGEX_WHITESPACE + "[;]?\n", StringUtils.EMPTY);
-        }
+        final String withoutAnnotations = removeAnnotations(script, getAnnotationSpans(AnnotationScanner.scan(script)));
+        String result = ANNOTATION_IMPORTS.matcher(withoutAnnotations).replaceAll(StringUtils.EMPTY);
         if (keepSpaces) {
             int scriptClassStartLine = getClassStartLineNr(script);
             int strippedClassStartLine = getClassStartLineNr(result);
-            String addition = StringUtils.repeat(NEWLINE, scriptClassStartLine - strippedClassStartLine);
-            result = result.replaceFirst("\nclass ", addition + "\nclass ");
+            final int classDeclaration = result.indexOf(CLASS_DECLARATION);
+            if (strippedClassStartLine >= 0 && scriptClassStartLine > strippedClassStartLine && classDeclaration >= 0) {
+                result = result.substring(0, classDeclaration)
+                    + StringUtils.repeat(NEWLINE, scriptClassStartLine - strippedClassStartLine)
+                    + result.substring(classDeclaration);
+            }
         } else {
-            result = result.replaceAll("(\n){3,}", "\n\n");
+            result = MULTIPLE_NEWLINES.matcher(result).replaceAll(NEWLINE + NEWLINE);
         }
         return result;
     }
 
+    /**
+     * Remove the annotations from the script in one go, together with the newline in front of each of them
+     */
+    private static String removeAnnotations(final String script, final List<AnnotationSpan> annotations) {
+        if (annotations.isEmpty()) {
+            return script;
+        }
+        final List<AnnotationSpan> sorted = new ArrayList<>(annotations);
+        sorted.sort(Comparator.comparingInt(AnnotationSpan::getStart));
+        final StringBuilder result = new StringBuilder(script.length());
+        int copied = 0;
+        for (final AnnotationSpan annotation : sorted) {
+            int start = annotation.getStart();
+            if (start > copied && script.charAt(start - 1) == '\n') {
+                start--;
+            }
+            result.append(script, copied, start);
+            copied = annotation.getEnd();
+        }
+        return result.append(script, copied, script.length()).toString();
+    }
+
+    /**
+     * @return the number of the first line starting with <code>class</code>, -1 if there is none
+     */
     private static int getClassStartLineNr(final String script) {
         int lineNr = 0;
-        try (BufferedReader reader = new BufferedReader(new StringReader(script))) {
-            for (String line = reader.readLine(); !line.startsWith("class"); line = reader.readLine()) {
-                lineNr++;
+        int lineStart = 0;
+        while (!script.startsWith(CLASS_LINE_START, lineStart)) {
+            final int lineEnd = script.indexOf(NEWLINE, lineStart);
+            if (lineEnd < 0) {
+                return -1;
             }
-        } catch (IOException e) {
-            //not happening
+            lineStart = lineEnd + 1;
+            lineNr++;
         }
         return lineNr;
     }
 
     public static String getAnnotation(final String script, final String className) {
-        final String regex = getAnnotationRegex(className);
-        Matcher matcher = Pattern.compile(regex).matcher(script);
-        return matcher.find() ? matcher.group() : StringUtils.EMPTY;
-    }
-
-    private static String getAnnotationRegex(final String className) {
-        final String annotationName = "@" + className;
-        return annotationName + ANNOTATION_PAYLOAD;
+        return getAnnotation(AnnotationScanner.scanAnnotations(script), className);
     }
 
     public static String getAnnotation(final String script, final Class<?> clazz) {
-        String simple = getAnnotation(script, clazz.getSimpleName());
+        final List<AnnotationSpan> annotations = AnnotationScanner.scanAnnotations(script);
+        final String simple = getAnnotation(annotations, clazz.getSimpleName());
+        return StringUtils.isNotBlank(simple) ? simple : getAnnotation(annotations, clazz.getCanonicalName());
+    }
 
-        return StringUtils.isNotBlank(simple) ?
-            simple :
-            getAnnotation(script, clazz.getCanonicalName());
+    private static String getAnnotation(final List<AnnotationSpan> annotations, final String className) {
+        for (final AnnotationSpan annotation : annotations) {
+            if (annotation.getName().equals(className)) {
+                return annotation.getText();
+            }
+        }
+        return StringUtils.EMPTY;
     }
 
     public static Bootstrap.ContentRoot getContentroot(final Bootstrap bootstrap) {
@@ -153,19 +174,20 @@ public abstract class Generator {
      * @return List of groovy files
      */
     public static List<File> getGroovyFiles(final File dir) {
-        final File[] groovyFiles = dir.listFiles(file -> file.isFile() && file.getName().endsWith(GROOVY_EXTENSION));
-        final File[] directories = dir.listFiles(File::isDirectory);
-        final List<File> allFiles = new ArrayList<>();
-        if (groovyFiles != null) {
-            allFiles.addAll(Arrays.asList(groovyFiles));
-            allFiles.sort(Comparator.comparing(File::getName));
-        }
-        if (directories != null) {
-            Arrays.stream(directories)
-                .sorted(Comparator.comparing(File::getName))
-                .map(Generator::getGroovyFiles).forEach(allFiles::addAll);
-        }
-        return Collections.unmodifiableList(allFiles);
+        return getGroovyFiles(dir, 1);
+    }
+
+    /**
+     * Obtain groovy files from given location
+     *
+     * @param dir     directory to obtain groovy files from
+     * @param threads the maximum number of threads to list the directories with
+     * @return List of groovy files, the files of a directory sorted by name before those of its sub-directories
+     * @see GroovyFileWalker
+     */
+    public static List<File> getGroovyFiles(final File dir, final int threads) {
+        return GroovyFileWalker.walk(dir.toPath(), threads).stream().map(Path::toFile)
+            .collect(collectingAndThen(toList(), Collections::unmodifiableList));
     }
 
     protected static String sanitizeFileName(final String fileName) {
@@ -186,6 +208,10 @@ public abstract class Generator {
         return ANNOTATED_CLASSES;
     }
 
+    public static Bootstrap.ContentRoot getDefaultContentRoot() {
+        return defaultContentRoot;
+    }
+
     public static void setDefaultContentRoot(Bootstrap.ContentRoot contentRoot) {
         defaultContentRoot = contentRoot;
     }
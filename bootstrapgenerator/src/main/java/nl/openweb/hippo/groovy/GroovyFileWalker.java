@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
+import static nl.openweb.hippo.groovy.model.Constants.Files.GROOVY_EXTENSION;
+
+/**
+ * Finds the groovy files in a directory tree, listing every directory once and reading the attributes of every entry
+ * once. The groovy files of a directory come first, sorted by name, followed by those of its sub-directories in the
+ * order of their names. Directories that cannot be read are skipped.
+ */
+public final class GroovyFileWalker {
+
+    private static final Comparator<Path> BY_NAME = Comparator.comparing(path -> path.getFileName().toString());
+
+    private GroovyFileWalker() {
+        //No instantiating of this class
+    }
+
+    /**
+     * @param dir the directory to search
+     * @return the groovy files in the directory and its sub-directories
+     */
+    public static List<Path> walk(final Path dir) {
+        return walk(dir, 1);
+    }
+
+    /**
+     * @param dir     the directory to search
+     * @param threads the maximum number of threads to list directories with, 1 or less lists them on the calling
+     *                thread
+     * @return the groovy files in the directory and its sub-directories, in the same order for any number of threads
+     */
+    public static List<Path> walk(final Path dir, final int threads) {
+        if (threads <= 1) {
+            final List<Path> files = new ArrayList<>();
+            walk(dir, files);
+            return files;
+        }
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new WalkTask(dir));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @param dir the directory to search
+     * @return the groovy files in the directory and its sub-directories, listing a directory only when the stream gets
+     * to it
+     */
+    public static Stream<Path> stream(final Path dir) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new WalkIterator(dir),
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    private static void walk(final Path dir, final List<Path> files) {
+        final Listing listing = new Listing(dir);
+        files.addAll(listing.files);
+        for (Path directory : listing.directories) {
+            walk(directory, files);
+        }
+    }
+
+    /**
+     * The groovy files and sub-directories of a directory, sorted by name
+     */
+    private static final class Listing {
+        private final List<Path> files = new ArrayList<>();
+        private final List<Path> directories = new ArrayList<>();
+
+        private Listing(final Path dir) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    add(entry);
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                //unreadable, like File.listFiles returning null
+            }
+            files.sort(BY_NAME);
+            directories.sort(BY_NAME);
+        }
+
+        private void add(final Path entry) {
+            final BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return;
+            }
+            if (attributes.isDirectory()) {
+                directories.add(entry);
+            } else if (attributes.isRegularFile() && entry.getFileName().toString().endsWith(GROOVY_EXTENSION)) {
+                files.add(entry);
+            }
+        }
+    }
+
+    private static final class WalkTask extends RecursiveTask<List<Path>> {
+        private final transient Path dir;
+
+        private WalkTask(final Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            final Listing listing = new Listing(dir);
+            final List<WalkTask> subTasks = listing.directories.stream().map(WalkTask::new).collect(toList());
+            invokeAll(subTasks);
+            final List<Path> files = new ArrayList<>(listing.files);
+            for (WalkTask subTask : subTasks) {
+                files.addAll(subTask.join());
+            }
+            return files;
+        }
+    }
+
+    /**
+     * Walks depth first, keeping the directories still to list on a stack
+     */
+    private static final class WalkIterator implements Iterator<Path> {
+        private final Deque<Path> directories = new ArrayDeque<>();
+        private Iterator<Path> files = Collections.emptyIterator();
+
+        private WalkIterator(final Path dir) {
+            directories.push(dir);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!files.hasNext() && !directories.isEmpty()) {
+                final Listing listing = new Listing(directories.pop());
+                files = listing.files.iterator();
+                for (int i = listing.directories.size() - 1; i >= 0; i--) {
+                    directories.push(listing.directories.get(i));
+                }
+            }
+            return files.hasNext();
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return files.next();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads text with linux line endings and without trailing spaces and tabs on its lines.
+ */
+public final class LineEndingNormalizer {
+    private static final char CR = '\r';
+    private static final char LF = '\n';
+    private static final int BUFFER_SIZE = 8192;
+
+    private LineEndingNormalizer() {
+        //No instantiating of this class
+    }
+
+    /**
+     * Read and normalize a file, decoding it through fixed size buffers
+     *
+     * @param path      the file to read
+     * @param charset   the charset of the file
+     * @param maxLength the maximum file size in bytes, 0 or less for no maximum
+     * @return the normalized content
+     * @throws IOException when the file cannot be read or is larger than the maximum length
+     */
+    public static String read(final Path path, final Charset charset, final long maxLength) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if ((maxLength > 0 && size > maxLength) || size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("File %s is larger than the maximum of %d bytes", path.toAbsolutePath(),
+                    maxLength > 0 ? maxLength : Integer.MAX_VALUE));
+            }
+            final CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+            final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+            final Normalizer normalizer = new Normalizer((int) size);
+            // a file that grows while reading is read up to the size checked above
+            long remaining = size;
+            CoderResult result;
+            do {
+                if (remaining > 0) {
+                    bytes.limit(bytes.position() + (int) Math.min(remaining, bytes.remaining()));
+                    final int read = channel.read(bytes);
+                    remaining = read < 0 ? 0 : remaining - read;
+                }
+                bytes.flip();
+                result = decoder.decode(bytes, chars, remaining == 0);
+                bytes.compact();
+                normalizer.append(chars.flip());
+                chars.clear();
+            } while (remaining > 0 || result.isOverflow());
+            do {
+                result = decoder.flush(chars);
+                normalizer.append(chars.flip());
+                chars.clear();
+            } while (result.isOverflow());
+            return normalizer.toString();
+        }
+    }
+
+    /**
+     * Replace CR LF and CR line endings by LF, and remove the spaces and tabs at the end of each line, in a single pass
+     *
+     * @param text the text to normalize
+     * @return the normalized text
+     */
+    public static String normalize(final CharSequence text) {
+        return new Normalizer(text.length()).append(text).toString();
+    }
+
+    /**
+     * Normalizes text that is appended in parts, a line ending or trailing whitespace may be split over two parts
+     */
+    private static final class Normalizer {
+        private final StringBuilder builder;
+        private int whitespaceStart = -1;
+        private boolean afterCr;
+
+        private Normalizer(final int capacity) {
+            builder = new StringBuilder(capacity);
+        }
+
+        private Normalizer append(final CharSequence text) {
+            final int length = text.length();
+            for (int i = 0; i < length; i++) {
+                final char c = text.charAt(i);
+                if (c == LF && afterCr) {
+                    afterCr = false;
+                    continue;
+                }
+                afterCr = c == CR;
+                if (c == ' ' || c == '\t') {
+                    if (whitespaceStart < 0) {
+                        whitespaceStart = builder.length();
+                    }
+                    builder.append(c);
+                } else if (c == CR || c == LF) {
+                    if (whitespaceStart >= 0) {
+                        builder.setLength(whitespaceStart);
+                        whitespaceStart = -1;
+                    }
+                    builder.append(LF);
+                } else {
+                    whitespaceStart = -1;
+                    builder.append(c);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
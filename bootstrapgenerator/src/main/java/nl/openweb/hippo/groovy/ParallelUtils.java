@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+public final class ParallelUtils {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    /**
+     * Threads shared by all calls, so repeated calls (like one per import batch) do not start new threads each time.
+     * Every call bounds its own number of threads, idle threads end after a minute.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "ParallelUtils-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ParallelUtils() {
+        //No instantiating of this class
+    }
+
+    /**
+     * Apply a function to all items using a bounded number of threads. The results keep the order of the items, no
+     * matter which thread finishes first.
+     *
+     * @param items   the items to process
+     * @param mapper  the function to apply, must be safe to call from multiple threads
+     * @param threads the maximum number of threads to use, 1 or less processes the items on the calling thread
+     * @param <T>     item type
+     * @param <R>     result type
+     * @return the results in the order of the items
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> List<R> map(final List<T> items, final Function<T, R> mapper, final int threads) {
+        if (threads <= 1 || items.size() <= 1) {
+            return items.stream().map(mapper).collect(toList());
+        }
+        final Object[] results = new Object[items.size()];
+        final AtomicInteger next = new AtomicInteger();
+        final List<Future<?>> workers = new ArrayList<>(threads);
+        try {
+            for (int i = 0; i < Math.min(threads, items.size()); i++) {
+                workers.add(EXECUTOR.submit(() -> {
+                    for (int index = next.getAndIncrement(); index < items.size(); index = next.getAndIncrement()) {
+                        results[index] = mapper.apply(items.get(index));
+                    }
+                }));
+            }
+            for (final Future<?> worker : workers) {
+                worker.get();
+            }
+            final List<R> list = new ArrayList<>(items.size());
+            for (final Object result : results) {
+                list.add((R) result);
+            }
+            return list;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing in parallel", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            //stop the other workers when one failed
+            next.set(items.size());
+            workers.forEach(worker -> worker.cancel(true));
+        }
+    }
+}
@@ -52,12 +52,17 @@ public class PropertyCollector {
         }
     }
 
-    private static String getValueOrFileContent(final ScriptClass script, final File sourceDir, final String value) {
+    private static File getReferencedFile(final ScriptClass script, final File sourceDir, final String value) {
         final File parentDir = value.startsWith("/") ? sourceDir : script.getFile().getParentFile();
-        final File file = new File(parentDir, value);
+        return new File(parentDir, value);
+    }
+
+    private static String getValueOrFileContent(final ScriptClass script, final File sourceDir, final String value,
+                                                final long maxLength) {
+        final File file = getReferencedFile(script, sourceDir, value);
         if (file.exists()) {
             try {
-                return ScriptClassFactory.readFileEnsuringLinuxLineEnding(file);
+                return ScriptClassFactory.readFileEnsuringLinuxLineEnding(file, maxLength);
             } catch (IOException | InvalidPathException e) {
                 //do nothing, it's fine
             }
@@ -69,7 +74,38 @@ public class PropertyCollector {
         return Arrays.asList(mixin.split("\\s*,\\s*"));
     }
 
+    /**
+     * Get the file the updater parameters are read from, when it exists. Otherwise the parameters value itself is used.
+     *
+     * @param script    the script to get the parameters file for
+     * @param sourceDir the directory to resolve absolute references against
+     * @return the parameters file, which may not exist, or null when there are no parameters
+     */
+    public static File getParametersFile(final ScriptClass script, final File sourceDir) {
+        final String value = script.getUpdater().parameters();
+        return StringUtils.isBlank(value) ? null : getReferencedFile(script, sourceDir, value);
+    }
+
     public static Map<String, Object> getPropertiesForUpdater(ScriptClass script, File sourceDir) {
+        return getPropertiesForUpdater(script, sourceDir, 0);
+    }
+
+    /**
+     * @param script    the script to get the properties for
+     * @param sourceDir the directory to resolve absolute references against
+     * @param maxLength the maximum size in bytes of a referenced parameters file, 0 or less for no maximum
+     * @return the properties of the updater node
+     */
+    public static Map<String, Object> getPropertiesForUpdater(ScriptClass script, File sourceDir, long maxLength) {
+        return getPropertiesForUpdater(script, new GenerationContext(sourceDir, null, maxLength));
+    }
+
+    /**
+     * @param script  the script to get the properties for
+     * @param context the settings of the generation run, the referenced files are resolved against its source directory
+     * @return the properties of the updater node
+     */
+    public static Map<String, Object> getPropertiesForUpdater(ScriptClass script, GenerationContext context) {
         Updater updater = script.getUpdater();
 
         final Map<String, Object> properties = new LinkedHashMap<>();
@@ -83,7 +119,7 @@ public class PropertyCollector {
         if (StringUtils.isNotBlank(updater.logTarget().toString())) {
             addPropertyIfNotEmpty(properties, HIPPOSYS_LOGTARGET, updater.logTarget().toString());
         }
-        addPropertyIfNotEmpty(properties, HIPPOSYS_PARAMETERS, getValueOrFileContent(script, sourceDir, updater.parameters()));
+        addPropertyIfNotEmpty(properties, HIPPOSYS_PARAMETERS, getValueOrFileContent(script, context.getSourceDir(), updater.parameters(), context.getMaxFileLength()));
         if (StringUtils.isBlank(updater.xpath())) {
             addPropertyIfNotEmpty(properties, HIPPOSYS_PATH, updater.path());
         }
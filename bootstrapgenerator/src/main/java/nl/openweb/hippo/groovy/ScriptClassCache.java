@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import nl.openweb.hippo.groovy.ScriptClassFactory.InterpretMode;
+import nl.openweb.hippo.groovy.exception.ScriptParseException;
+import nl.openweb.hippo.groovy.model.ScriptClass;
+
+/**
+ * Least recently used cache of interpreted scripts, so a file that did not change is not read and interpreted again.
+ * An entry is keyed on the canonical path, whether the line count is kept and the interpret mode, and is only used as
+ * long as the size and last modified time of the file are the same. Scripts that are no updaters and scripts that
+ * failed to interpret are cached as well, each lookup of a failed script throws a new {@link ScriptParseException}
+ * caused by the original failure. Files that could not be read at all are not cached.
+ * <p>
+ * A file modified less than two seconds before it is read is not cached, as it could be saved again without its
+ * modification time changing on file systems with a coarse time resolution.
+ */
+public final class ScriptClassCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_MAX_WEIGHT = 16L * 1024 * 1024;
+    private static final long MODIFICATION_TIME_RESOLUTION_MILLIS = 2000L;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hitCount;
+    private long missCount;
+
+    public ScriptClassCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxEntries the maximum number of scripts to cache
+     * @param maxWeight  the maximum number of characters of the cached paths and script contents together
+     */
+    public ScriptClassCache(final int maxEntries, final long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Get the cached interpretation of a file, interpreting it when it is not cached or has changed
+     *
+     * @see ScriptClassFactory#getInterpretingClass(File, boolean, InterpretMode, long)
+     */
+    public ScriptClass getInterpretingClass(final File file, final boolean keepLineCount, final InterpretMode mode,
+                                            final long maxLength) {
+        if (ScriptClassFactory.exceedsMaxLength(file, maxLength)) {
+            return null;
+        }
+        final Key key = new Key(getCanonicalPath(file), keepLineCount, mode);
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.length == length && entry.lastModified == lastModified) {
+                hitCount++;
+            } else {
+                missCount++;
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            entry = interpret(key, file, keepLineCount, mode, maxLength, length, lastModified);
+        }
+        return entry.getScriptClass(file);
+    }
+
+    /**
+     * Check whether the interpretation of a file is cached, comparing only its size and last modified time
+     *
+     * @return whether {@link #getInterpretingClass(File, boolean, InterpretMode, long)} would not read the file
+     */
+    public boolean isCached(final File file, final boolean keepLineCount, final InterpretMode mode) {
+        final Key key = new Key(getCanonicalPath(file), keepLineCount, mode);
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            return entry != null && entry.length == length && entry.lastModified == lastModified;
+        }
+    }
+
+    private Entry interpret(final Key key, final File file, final boolean keepLineCount, final InterpretMode mode,
+                            final long maxLength, final long length, final long lastModified) {
+        Entry entry;
+        try {
+            entry = new Entry(length, lastModified,
+                ScriptClassFactory.getInterpretingClass(file, keepLineCount, mode, maxLength), null);
+        } catch (RuntimeException e) {
+            entry = new Entry(length, lastModified, null, e);
+        }
+        final boolean cacheable = (entry.scriptClass != null || entry.failure != null) && lastModified > 0 &&
+            System.currentTimeMillis() - lastModified >= MODIFICATION_TIME_RESOLUTION_MILLIS;
+        synchronized (this) {
+            final Entry previous = cacheable ? entries.put(key, entry) : entries.remove(key);
+            if (previous != null) {
+                weight -= previous.getWeight(key);
+            }
+            if (cacheable) {
+                weight += entry.getWeight(key);
+                evict();
+            }
+        }
+        return entry;
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && iterator.hasNext()) {
+            final Map.Entry<Key, Entry> eldest = iterator.next();
+            weight -= eldest.getValue().getWeight(eldest.getKey());
+            iterator.remove();
+        }
+    }
+
+    private static String getCanonicalPath(final File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    private static final class Key {
+        private final String path;
+        private final boolean keepLineCount;
+        private final InterpretMode mode;
+
+        private Key(final String path, final boolean keepLineCount, final InterpretMode mode) {
+            this.path = path;
+            this.keepLineCount = keepLineCount;
+            this.mode = mode;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return keepLineCount == key.keepLineCount && path.equals(key.path) && mode == key.mode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, keepLineCount, mode);
+        }
+    }
+
+    private static final class Entry {
+        private final long length;
+        private final long lastModified;
+        private final ScriptClass scriptClass;
+        private final RuntimeException failure;
+
+        private Entry(final long length, final long lastModified, final ScriptClass scriptClass,
+                      final RuntimeException failure) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.scriptClass = scriptClass;
+            this.failure = failure;
+        }
+
+        private long getWeight(final Key key) {
+            final String content = scriptClass == null ? null : scriptClass.getContent();
+            return key.path.length() + (content == null ? 0 : content.length());
+        }
+
+        /**
+         * @param file the file as requested, which may be another representation of the cached path
+         */
+        private ScriptClass getScriptClass(final File file) {
+            if (failure != null) {
+                throw new ScriptParseException(failure.getMessage(), failure);
+            }
+            if (scriptClass == null || scriptClass.getFile().equals(file)) {
+                return scriptClass;
+            }
+            return new ScriptClass(file, scriptClass.getUpdater(), scriptClass.getBootstrap(), scriptClass.isExcluded(),
+                scriptClass.getContent());
+        }
+    }
+}
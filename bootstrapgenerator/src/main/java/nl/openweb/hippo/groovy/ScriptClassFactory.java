@@ -23,7 +23,6 @@ import java.util.List;
 
 import javax.jcr.NamespaceException;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jackrabbit.spi.NameFactory;
 import org.apache.jackrabbit.spi.commons.conversion.NameParser;
@@ -31,32 +30,55 @@ import org.apache.jackrabbit.spi.commons.name.NameFactoryImpl;
 import org.apache.jackrabbit.spi.commons.namespace.NamespaceMapping;
 
 import groovy.lang.GroovyClassLoader;
+import nl.openweb.hippo.groovy.annotations.Bootstrap;
+import nl.openweb.hippo.groovy.annotations.Exclude;
+import nl.openweb.hippo.groovy.annotations.Updater;
 import nl.openweb.hippo.groovy.exception.ScriptParseException;
 import nl.openweb.hippo.groovy.model.ScriptClass;
+import nl.openweb.hippo.groovy.model.ScriptHeader;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
-import static nl.openweb.hippo.groovy.Generator.NEWLINE;
 import static nl.openweb.hippo.groovy.Generator.getAnnotationClasses;
 import static nl.openweb.hippo.groovy.Generator.getAnnotations;
 import static nl.openweb.hippo.groovy.Generator.stripAnnotations;
 
 public class ScriptClassFactory {
-    private static final String LINE_END_WINDOWS = "\r\n";
     private static final String LINE_END_LINUX = "\n";
-    private static final String LINE_END_MAC = "\r";
-    private static final NamespaceMapping NAMESPACE_MAPPING = new NamespaceMapping();
+    private static final NamespaceMapping NAMESPACE_MAPPING = createNamespaceMapping();
     private static final NameFactory NAME_FACTORY = NameFactoryImpl.getInstance();
-    private static final GroovyClassLoader GROOVY_CLASS_LOADER = new GroovyClassLoader();
+    public static final int MAX_CLASSES_PER_CLASS_LOADER = 100;
+    private static final ThreadLocal<RecyclingClassLoader> GROOVY_CLASS_LOADER = ThreadLocal.withInitial(RecyclingClassLoader::new);
+
+    /**
+     * How the annotations of a script are interpreted
+     */
+    public enum InterpretMode {
+        /**
+         * Compile the annotations into a throwaway class
+         */
+        COMPILE,
+        /**
+         * Read the annotation attributes directly from the source, falling back to compiling when an attribute is not a
+         * plain constant
+         */
+        PARSE
+    }
 
     private ScriptClassFactory() {
         //No instantiating of this class
     }
 
-    private static NamespaceMapping getNamespaceMapping() throws NamespaceException {
-        if (!NAMESPACE_MAPPING.hasPrefix(StringUtils.EMPTY)) {
-            NAMESPACE_MAPPING.setMapping(StringUtils.EMPTY, StringUtils.EMPTY);
+    /**
+     * The mapping is only read after it is created, so the validation of scripts does not need to synchronize on it
+     */
+    private static NamespaceMapping createNamespaceMapping() {
+        final NamespaceMapping mapping = new NamespaceMapping();
+        try {
+            mapping.setMapping(StringUtils.EMPTY, StringUtils.EMPTY);
+        } catch (NamespaceException e) {
+            throw new IllegalStateException("Unable to map the default namespace", e);
         }
-        return NAMESPACE_MAPPING;
+        return mapping;
     }
 
     private static void validateScriptClass(final ScriptClass scriptClass) {
@@ -66,7 +88,7 @@ public class ScriptClassFactory {
         final String name = scriptClass.getUpdater().name();
 
         try {
-            NameParser.parse(name, getNamespaceMapping(), NAME_FACTORY);
+            NameParser.parse(name, NAMESPACE_MAPPING, NAME_FACTORY);
         } catch (Exception e) {
             throw new ScriptParseException("Error parsing the updater name for: " + scriptClass.getFile().getAbsolutePath(), e);
         }
@@ -90,17 +112,39 @@ public class ScriptClassFactory {
      * @return a fake class with the Bootstrap and Updater annotations
      */
     public static ScriptClass getInterpretingClass(final File file, final boolean keepLineCount) {
-        GROOVY_CLASS_LOADER.clearCache();
-        String script;
+        return getInterpretingClass(file, keepLineCount, InterpretMode.COMPILE);
+    }
+
+    /**
+     * Returns a class that has actually nothing but the Bootstrap and Updater Annotations
+     *
+     * @param file          the file to make a class representation of
+     * @param keepLineCount keep linecount when stripping the annotations in the scriptcontent
+     * @param mode          how to interpret the annotations
+     * @return a fake class with the Bootstrap and Updater annotations
+     */
+    public static ScriptClass getInterpretingClass(final File file, final boolean keepLineCount, final InterpretMode mode) {
+        return getInterpretingClass(file, keepLineCount, mode, 0);
+    }
+
+    /**
+     * Returns a class that has actually nothing but the Bootstrap and Updater Annotations
+     *
+     * @param file          the file to make a class representation of
+     * @param keepLineCount keep linecount when stripping the annotations in the scriptcontent
+     * @param mode          how to interpret the annotations
+     * @param maxLength     the maximum file size in bytes, 0 or less for no maximum
+     * @return a fake class with the Bootstrap and Updater annotations, or null when the file cannot be read or is
+     * too large
+     */
+    public static ScriptClass getInterpretingClass(final File file, final boolean keepLineCount, final InterpretMode mode,
+                                                   final long maxLength) {
         try {
-            script = readFileEnsuringLinuxLineEnding(file);
-
-            String imports = getAnnotationClasses().stream()
-                .map(clazz -> "import " + clazz.getCanonicalName() + ";" + LINE_END_LINUX)
-                .collect(joining());
-            String interpretCode = imports + String.join(LINE_END_LINUX, getAnnotations(script)) + LINE_END_LINUX + "class InterpretClass {}";
-            script = stripAnnotations(script, keepLineCount);
-            final ScriptClass scriptClass = new ScriptClass(file, GROOVY_CLASS_LOADER.parseClass(interpretCode), script);
+            final String script = readFileEnsuringLinuxLineEnding(file, maxLength);
+            ScriptClass scriptClass = mode == InterpretMode.PARSE ? parseScriptClass(file, script, keepLineCount) : null;
+            if (scriptClass == null) {
+                scriptClass = compileScriptClass(file, script, keepLineCount);
+            }
             validateScriptClass(scriptClass);
             return scriptClass;
         } catch (IOException e) {
@@ -108,17 +152,152 @@ public class ScriptClassFactory {
         }
     }
 
+    private static ScriptClass compileScriptClass(final File file, final String script, final boolean keepLineCount) {
+        String imports = getAnnotationClasses().stream()
+            .map(clazz -> "import " + clazz.getCanonicalName() + ";" + LINE_END_LINUX)
+            .collect(joining());
+        String interpretCode = imports + String.join(LINE_END_LINUX, getAnnotations(script)) + LINE_END_LINUX + "class InterpretClass {}";
+        return new ScriptClass(file, GROOVY_CLASS_LOADER.get().parseClass(interpretCode), stripAnnotations(script, keepLineCount));
+    }
+
+    /**
+     * Build the script class from the scanned annotation attributes
+     *
+     * @return the script class, or null when the annotations can only be evaluated by compiling them
+     */
+    private static ScriptClass parseScriptClass(final File file, final String script, final boolean keepLineCount) {
+        final ScriptHeader header = AnnotationScanner.scan(script);
+        Updater updater = null;
+        Bootstrap bootstrap = null;
+        boolean excluded = false;
+        if (header.isUpdater()) {
+            try {
+                updater = AnnotationBuilder.build(Updater.class, header.getAnnotation(Updater.class));
+                if (header.hasAnnotation(Bootstrap.class)) {
+                    bootstrap = AnnotationBuilder.build(Bootstrap.class, header.getAnnotation(Bootstrap.class));
+                }
+                if (header.hasAnnotation(Exclude.class)) {
+                    AnnotationBuilder.build(Exclude.class, header.getAnnotation(Exclude.class));
+                    excluded = true;
+                }
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return new ScriptClass(file, updater, bootstrap, excluded, stripAnnotations(script, keepLineCount));
+    }
+
     public static String readFileEnsuringLinuxLineEnding(final File file) throws IOException {
-        String content = FileUtils.readFileToString(file, Charset.defaultCharset());
-        if (content.contains(LINE_END_MAC)) {
-            content = content.replace(LINE_END_WINDOWS, LINE_END_LINUX)
-                .replace(LINE_END_MAC, LINE_END_LINUX);
+        return readFileEnsuringLinuxLineEnding(file, 0);
+    }
+
+    /**
+     * Read a file, without reading more than the maximum length into memory
+     *
+     * @param file      the file to read
+     * @param maxLength the maximum file size in bytes, 0 or less for no maximum
+     * @return the content with linux line endings and without trailing whitespace
+     * @throws IOException when the file cannot be read or is larger than the maximum length
+     */
+    public static String readFileEnsuringLinuxLineEnding(final File file, final long maxLength) throws IOException {
+        return LineEndingNormalizer.read(file.toPath(), Charset.defaultCharset(), maxLength);
+    }
+
+    /**
+     * @param file      the file to check
+     * @param maxLength the maximum file size in bytes, 0 or less for no maximum
+     * @return whether the file is larger than the maximum, without reading it
+     */
+    public static boolean exceedsMaxLength(final File file, final long maxLength) {
+        return maxLength > 0 && file.length() > maxLength;
+    }
+
+    /**
+     * Read the header of a script only, up to the class declaration, to find out what kind of script it is before
+     * reading all of it
+     *
+     * @param file      the script to read
+     * @param maxLength the maximum file size in bytes, 0 or less for no maximum
+     * @return the header of the script, or null when the file cannot be read or is too large
+     */
+    public static ScriptHeader readHeader(final File file, final long maxLength) {
+        try {
+            return AnnotationScanner.scan(file.toPath(), Charset.defaultCharset(), maxLength);
+        } catch (IOException e) {
+            return null;
         }
-        return content.replaceAll("[\\t ]+" + NEWLINE, NEWLINE);
+    }
+
+    private static boolean isIncludedUpdater(final File file) {
+        final ScriptHeader header = readHeader(file, 0);
+        return header != null && header.isUpdater() && !header.hasAnnotation(Exclude.class);
+    }
+
+    /**
+     * @return the class loader interpreting the scripts of the current thread, which is replaced after every
+     * {@link #MAX_CLASSES_PER_CLASS_LOADER} scripts
+     */
+    public static ClassLoader getClassLoader() {
+        return GROOVY_CLASS_LOADER.get().classLoader;
+    }
+
+    /**
+     * @return the number of class loaders the current thread has replaced
+     */
+    public static long getReplacedClassLoaders() {
+        return GROOVY_CLASS_LOADER.get().replacedLoaders;
     }
 
     public static List<ScriptClass> getScriptClasses(File sourceDir) {
-        return Generator.getGroovyFiles(sourceDir).stream().map(ScriptClassFactory::getInterpretingClass)
-            .filter(script -> script.isValid() && !script.isExcluded()).collect(toList());
+        return getScriptClasses(sourceDir, InterpretMode.COMPILE);
+    }
+
+    public static List<ScriptClass> getScriptClasses(File sourceDir, InterpretMode mode) {
+        return getScriptClasses(sourceDir, mode, 1);
+    }
+
+    /**
+     * Interpret all groovy files in a directory. Files are only read entirely when their header shows they are
+     * updaters that are not excluded.
+     *
+     * @param sourceDir the directory to read the groovy files from
+     * @param mode      how to interpret the annotations
+     * @param threads   the maximum number of threads to find and interpret the files with
+     * @return the valid, not excluded scripts, in file order
+     */
+    public static List<ScriptClass> getScriptClasses(File sourceDir, InterpretMode mode, int threads) {
+        return ParallelUtils.map(Generator.getGroovyFiles(sourceDir, threads),
+                file -> isIncludedUpdater(file) ? getInterpretingClass(file, false, mode) : null, threads).stream()
+            .filter(script -> script != null && script.isValid() && !script.isExcluded()).collect(toList());
+    }
+
+    /**
+     * The groovy class loader of a thread. The interpreting classes are only needed to read their annotations, so the
+     * loader forgets a class right after parsing it, and is replaced by a new one after a number of classes. That way
+     * a long-running JVM can unload the classes, whatever the loader may still hold on to.
+     */
+    private static final class RecyclingClassLoader {
+        private GroovyClassLoader classLoader = new GroovyClassLoader();
+        private int parsedClasses;
+        private long replacedLoaders;
+
+        private Class<?> parseClass(final String code) {
+            if (parsedClasses >= MAX_CLASSES_PER_CLASS_LOADER) {
+                try {
+                    classLoader.close();
+                } catch (IOException e) {
+                    //nothing to release that matters, the loader is discarded anyway
+                }
+                classLoader = new GroovyClassLoader();
+                parsedClasses = 0;
+                replacedLoaders++;
+            }
+            parsedClasses++;
+            try {
+                return classLoader.parseClass(code);
+            } finally {
+                classLoader.clearCache();
+            }
+        }
     }
 }
@@ -17,6 +17,7 @@
 package nl.openweb.hippo.groovy;
 
 import java.io.File;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.Map;
 
@@ -27,7 +28,6 @@ import org.yaml.snakeyaml.Yaml;
 import nl.openweb.hippo.groovy.annotations.Bootstrap;
 import nl.openweb.hippo.groovy.annotations.Updater;
 import nl.openweb.hippo.groovy.model.ScriptClass;
-import static nl.openweb.hippo.groovy.Generator.getContentroot;
 import static nl.openweb.hippo.groovy.Generator.getUpdatePath;
 import static nl.openweb.hippo.groovy.Generator.sanitizeFileName;
 import static nl.openweb.hippo.groovy.model.Constants.Files.YAML_EXTENSION;
@@ -36,6 +36,7 @@ import static nl.openweb.hippo.groovy.model.Constants.Files.YAML_EXTENSION;
  * Generator to parse a groovy file into repository-data YAML
  */
 public abstract class YamlGenerator {
+    private static final ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(YamlGenerator::createYaml);
 
     protected YamlGenerator() {
         super();
@@ -49,9 +50,20 @@ public abstract class YamlGenerator {
      * @return Mapping object representing the groovy updater to write out as yaml
      */
     public static Map<String, Map<String, Object>> getUpdateYamlScript(final File sourceDir, final ScriptClass scriptClass) {
-        Map<String, Object> properties = PropertyCollector.getPropertiesForUpdater(scriptClass, sourceDir);
+        return getUpdateYamlScript(new GenerationContext(sourceDir), scriptClass);
+    }
 
-        final Map<String, Map<String, Object>> scriptYaml = Collections.singletonMap(getBootstrapPath(scriptClass), properties);
+    /**
+     * Parse file to updater node
+     *
+     * @param context     the settings of the generation run
+     * @param scriptClass class to use for source
+     * @return Mapping object representing the groovy updater to write out as yaml
+     */
+    public static Map<String, Map<String, Object>> getUpdateYamlScript(final GenerationContext context, final ScriptClass scriptClass) {
+        Map<String, Object> properties = PropertyCollector.getPropertiesForUpdater(scriptClass, context);
+
+        final Map<String, Map<String, Object>> scriptYaml = Collections.singletonMap(getBootstrapPath(context, scriptClass), properties);
         if (Bootstrap.ContentRoot.REGISTRY.equals(scriptClass.getBootstrap(true).contentroot())) {
             Map<String, Object> config = Collections.singletonMap("config", scriptYaml);
             return Collections.singletonMap("definitions", config);
@@ -67,20 +79,31 @@ public abstract class YamlGenerator {
      * @return the path, relative to the basePath, converted \ to /, with yaml extension
      */
     public static String getUpdateScriptYamlFilename(final File basePath, final ScriptClass scriptClass) {
-        final String fileName = scriptClass.getFile().getAbsolutePath().substring(basePath.getAbsolutePath().length() + 1);
+        return getUpdateScriptYamlFilename(new GenerationContext(basePath), scriptClass);
+    }
+
+    /**
+     * Get update script yaml filename
+     *
+     * @param context     the settings of the generation run, the path is made relative to its source directory
+     * @param scriptClass File object for the groovy script
+     * @return the path, relative to the source directory, converted \ to /, with yaml extension
+     */
+    public static String getUpdateScriptYamlFilename(final GenerationContext context, final ScriptClass scriptClass) {
+        final String fileName = scriptClass.getFile().getAbsolutePath().substring(context.getSourceDir().getAbsolutePath().length() + 1);
         final Bootstrap bootstrap = scriptClass.getBootstrap();
 
-        String versionString = bootstrap != null && getContentroot(bootstrap).equals(Bootstrap.ContentRoot.QUEUE) &&
+        String versionString = bootstrap != null && context.getContentroot(bootstrap).equals(Bootstrap.ContentRoot.QUEUE) &&
             bootstrap.reload() && !bootstrap.version().isEmpty() ?
             "-v" + bootstrap.version() : StringUtils.EMPTY;
 
         return sanitizeFileName(fileName) + versionString + YAML_EXTENSION;
     }
 
-    private static String getBootstrapPath(final ScriptClass scriptClass) {
+    private static String getBootstrapPath(final GenerationContext context, final ScriptClass scriptClass) {
         Updater updater = scriptClass.getUpdater();
         Bootstrap bootstrap = scriptClass.getBootstrap(true);
-        Bootstrap.ContentRoot contentroot = getContentroot(bootstrap);
+        Bootstrap.ContentRoot contentroot = context.getContentroot(bootstrap);
         return getUpdatePath(contentroot) + "/" + updater.name();
     }
 
@@ -88,7 +111,26 @@ public abstract class YamlGenerator {
         return map == null ? StringUtils.EMPTY : getYaml().dump(map);
     }
 
+    /**
+     * Write the yaml representation of a map straight to a writer
+     *
+     * @param map    the map to write
+     * @param writer the writer to write to, it is not closed
+     */
+    public static void writeYaml(Map<?, ?> map, Writer writer) {
+        if (map != null) {
+            getYaml().dump(map, writer);
+        }
+    }
+
+    /**
+     * @return the yaml dumper of the current thread, Yaml instances are not thread safe
+     */
     private static Yaml getYaml() {
+        return YAML.get();
+    }
+
+    private static Yaml createYaml() {
         DumperOptions options = new DumperOptions();
         options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
         return new Yaml(options);
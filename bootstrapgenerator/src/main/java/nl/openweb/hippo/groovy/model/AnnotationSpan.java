@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy.model;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An annotation as found in the source of a groovy script, with its position and its raw attribute values
+ */
+public class AnnotationSpan {
+    private final String name;
+    private final int start;
+    private final int end;
+    private final String text;
+    private final Map<String, String> attributes;
+
+    public AnnotationSpan(final String name, final int start, final int end, final String text, final Map<String, String> attributes) {
+        this.name = name;
+        this.start = start;
+        this.end = end;
+        this.text = text;
+        this.attributes = Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * @return the name of the annotation as written in the script, either simple or fully qualified
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return offset of the '@' in the script
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return offset right after the last character of the annotation
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the attribute values as written in the script (including quotes), in order of appearance
+     */
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public boolean isAnnotation(final Class<?> clazz) {
+        return name.equals(clazz.getSimpleName()) || name.equals(clazz.getCanonicalName());
+    }
+}
@@ -23,16 +23,21 @@ import nl.openweb.hippo.groovy.annotations.Exclude;
 import nl.openweb.hippo.groovy.annotations.Updater;
 
 public class ScriptClass {
-    private final Class<?> interpretClass;
     private final String content;
     private final File file;
     private final Updater updater;
     private final Bootstrap bootstrap;
+    private final boolean excluded;
 
     public ScriptClass(final File file, Class<?> interpretClass, String content) {
-        this.interpretClass = interpretClass;
-        this.updater = interpretClass.getAnnotation(Updater.class);
-        this.bootstrap = interpretClass.getAnnotation(Bootstrap.class);
+        this(file, interpretClass.getAnnotation(Updater.class), interpretClass.getAnnotation(Bootstrap.class),
+            interpretClass.isAnnotationPresent(Exclude.class), content);
+    }
+
+    public ScriptClass(final File file, final Updater updater, final Bootstrap bootstrap, final boolean excluded, final String content) {
+        this.updater = updater;
+        this.bootstrap = bootstrap;
+        this.excluded = excluded;
         this.content = content;
         this.file = file;
     }
@@ -50,7 +55,7 @@ public class ScriptClass {
     }
 
     public final Bootstrap getBootstrap(boolean defaultToDefault) {
-        return interpretClass.isAnnotationPresent(Bootstrap.class) || !defaultToDefault ?
+        return bootstrap != null || !defaultToDefault ?
             getBootstrap() :
             DefaultBootstrap.getBootstrap();
     }
@@ -60,10 +65,10 @@ public class ScriptClass {
     }
 
     public boolean isValid() {
-        return interpretClass.isAnnotationPresent(Updater.class);
+        return updater != null;
     }
 
     public boolean isExcluded() {
-        return interpretClass.isAnnotationPresent(Exclude.class);
+        return excluded;
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import nl.openweb.hippo.groovy.annotations.Updater;
+
+/**
+ * Result of scanning a groovy script: the annotations in front of the class declaration
+ */
+public class ScriptHeader {
+    private final List<AnnotationSpan> annotations;
+    private final int classStart;
+
+    public ScriptHeader(final List<AnnotationSpan> annotations, final int classStart) {
+        this.annotations = Collections.unmodifiableList(annotations);
+        this.classStart = classStart;
+    }
+
+    public List<AnnotationSpan> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * @return offset of the <code>class</code> keyword of the script class, -1 if there is none
+     */
+    public int getClassStart() {
+        return classStart;
+    }
+
+    /**
+     * Get the first annotation with the given name
+     *
+     * @param name simple or fully qualified name of the annotation
+     * @return the annotation or null if not present
+     */
+    public AnnotationSpan getAnnotation(final String name) {
+        for (final AnnotationSpan annotation : annotations) {
+            if (annotation.getName().equals(name)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the first annotation of the given class, preferring the simple name over the fully qualified name
+     *
+     * @param clazz the annotation class
+     * @return the annotation or null if not present
+     */
+    public AnnotationSpan getAnnotation(final Class<?> clazz) {
+        final AnnotationSpan simple = getAnnotation(clazz.getSimpleName());
+        return simple != null ? simple : getAnnotation(clazz.getCanonicalName());
+    }
+
+    public boolean hasAnnotation(final Class<?> clazz) {
+        return getAnnotation(clazz) != null;
+    }
+
+    /**
+     * @return whether there is a script class annotated as updater
+     */
+    public boolean isUpdater() {
+        return classStart >= 0 && hasAnnotation(Updater.class);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.openweb.hippo.groovy.AnnotationScanner;
+import nl.openweb.hippo.groovy.annotations.Bootstrap;
+import nl.openweb.hippo.groovy.annotations.Exclude;
+import nl.openweb.hippo.groovy.annotations.Updater;
+import nl.openweb.hippo.groovy.model.AnnotationSpan;
+import nl.openweb.hippo.groovy.model.ScriptHeader;
+import static nl.openweb.hippo.groovy.ScriptClassFactory.readFileEnsuringLinuxLineEnding;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnnotationScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void scanHeader() throws URISyntaxException, IOException {
+        URL testfileUrl = getClass().getResource("updater.groovy");
+        String content = readFileEnsuringLinuxLineEnding(new File(testfileUrl.toURI()));
+
+        final ScriptHeader header = AnnotationScanner.scan(content);
+        final List<AnnotationSpan> annotations = header.getAnnotations();
+
+        assertEquals(2, annotations.size());
+        assertEquals(content.indexOf("class TestUpdater"), header.getClassStart());
+        final AnnotationSpan updater = header.getAnnotation(Updater.class);
+        assertNotNull(updater);
+        assertEquals(updater.getText(), content.substring(updater.getStart(), updater.getEnd()));
+        assertEquals("\"Test Updater\"", updater.getAttributes().get("name"));
+        assertEquals("\"//element(*, hippo:document)\"", updater.getAttributes().get("xpath"));
+        assertEquals("\" \"", updater.getAttributes().get("parameters"));
+        assertTrue(updater.getAttributes().get("description").startsWith("'''This script"));
+        assertEquals("true", header.getAnnotation(Bootstrap.class).getAttributes().get("reload"));
+    }
+
+    @Test
+    void skipCommentsAndStrings() throws URISyntaxException, IOException {
+        URL testfileUrl = getClass().getResource("sub/updater3.groovy");
+        String content = readFileEnsuringLinuxLineEnding(new File(testfileUrl.toURI()));
+
+        final ScriptHeader header = AnnotationScanner.scan(content);
+
+        assertEquals(3, header.getAnnotations().size());
+        assertFalse(header.hasAnnotation(Exclude.class));
+        assertEquals("@Updater(name = \"Test Sub Updater 3\", xpath = \"//element(*, hippo:document)\")",
+            header.getAnnotation(Updater.class).getText());
+        assertEquals("XmlAccessOrder.ALPHABETICAL", header.getAnnotation("XmlAccessorOrder").getAttributes().get("value"));
+    }
+
+    @Test
+    void nestedParenthesesAndQuotes() {
+        final String script = "@Updater(name = 'It\\'s (nested)', xpath = \"//a[@b=')']\", batchSize = 3L, // comment, with comma\n" +
+            "  description = \"\"\"multi\n\"line\"\n\"\"\")\n" +
+            "class Foo extends Bar { @Exclude void x() {} }";
+
+        final ScriptHeader header = AnnotationScanner.scan(script);
+        final AnnotationSpan updater = header.getAnnotation(Updater.class);
+
+        assertEquals(1, header.getAnnotations().size());
+        assertEquals(4, updater.getAttributes().size());
+        assertEquals("'It\\'s (nested)'", updater.getAttributes().get("name"));
+        assertEquals("\"//a[@b=')']\"", updater.getAttributes().get("xpath"));
+        assertEquals("3L", updater.getAttributes().get("batchSize"));
+        assertEquals("\"\"\"multi\n\"line\"\n\"\"\"", updater.getAttributes().get("description"));
+        assertEquals(script.indexOf("class"), header.getClassStart());
+    }
+
+    @Test
+    void scanFileHeaderOnly() throws URISyntaxException, IOException {
+        final File source = new File(getClass().getResource("sub/updater3.groovy").toURI());
+        final String content = readFileEnsuringLinuxLineEnding(source);
+        final Path file = tempDir.resolve("updater3.groovy");
+        final String padding = "//" + "x".repeat(5000) + "\n";
+        // a body that is not even valid groovy is never read
+        Files.write(file, (padding + content.replace("\n", "\r\n") + "\n}}} '''").getBytes(Charset.defaultCharset()));
+
+        final ScriptHeader expected = AnnotationScanner.scan(padding + content);
+        final ScriptHeader header = AnnotationScanner.scan(file, Charset.defaultCharset(), 0);
+        assertEquals(expected.getClassStart(), header.getClassStart());
+        assertEquals(3, header.getAnnotations().size());
+        assertTrue(header.isUpdater());
+        assertEquals(expected.getAnnotation(Updater.class).getAttributes(), header.getAnnotation(Updater.class).getAttributes());
+
+        assertThrows(IOException.class, () -> AnnotationScanner.scan(file, Charset.defaultCharset(), 10));
+    }
+
+    @Test
+    void scanFileAcrossChunks() throws IOException {
+        final Path file = tempDir.resolve("chunked.groovy");
+        for (int padding = 4070; padding < 4100; padding++) {
+            final String script = "//" + "x".repeat(padding) + "\r\n@Updater\r\n(name = \"Chunked\")\r\n" +
+                "class Chunked extends BaseNodeUpdateVisitor {}\r\n";
+            Files.write(file, script.getBytes(Charset.defaultCharset()));
+            final ScriptHeader header = AnnotationScanner.scan(file, Charset.defaultCharset(), 0);
+            assertEquals(AnnotationScanner.scan(script.replace("\r\n", "\n")).getClassStart(), header.getClassStart());
+            assertEquals("\"Chunked\"", header.getAnnotation(Updater.class).getAttributes().get("name"), "padding " + padding);
+        }
+    }
+
+    @Test
+    void scanFileWithoutClass() throws IOException {
+        final Path file = Files.write(tempDir.resolve("script.groovy"),
+            "@Updater(name = \"No class\")\nprintln 'classless'\n".getBytes(Charset.defaultCharset()));
+        final ScriptHeader header = AnnotationScanner.scan(file, Charset.defaultCharset(), 0);
+        assertEquals(-1, header.getClassStart());
+        assertTrue(header.hasAnnotation(Updater.class));
+        assertFalse(header.isUpdater());
+    }
+
+    @Test
+    void skipLeadingHelperClass() throws IOException {
+        final String script = "import groovy.transform.CompileStatic\n\n" +
+            "@CompileStatic\nclass Helper {\n    @Deprecated\n    String get() { 'class Foo {' }\n}\n\n" +
+            "@Bootstrap(reload = true)\n@Updater(name = \"Helped Updater\", path = \"/content\")\n" +
+            "class HelpedUpdater extends BaseNodeUpdateVisitor {\n}\n";
+
+        final ScriptHeader header = AnnotationScanner.scan(script);
+        assertTrue(header.isUpdater());
+        assertEquals(script.indexOf("class HelpedUpdater"), header.getClassStart());
+        assertEquals(3, header.getAnnotations().size());
+        assertFalse(header.hasAnnotation(Deprecated.class));
+        assertEquals("true", header.getAnnotation(Bootstrap.class).getAttributes().get("reload"));
+
+        final Path file = Files.write(tempDir.resolve("helped.groovy"), script.getBytes(Charset.defaultCharset()));
+        final ScriptHeader fileHeader = AnnotationScanner.scan(file, Charset.defaultCharset(), 0);
+        assertEquals(header.getClassStart(), fileHeader.getClassStart());
+        assertEquals(header.getAnnotation(Updater.class).getAttributes(), fileHeader.getAnnotation(Updater.class).getAttributes());
+
+        final String visitor = script.replace("@Updater(name = \"Helped Updater\", path = \"/content\")\n", "");
+        final ScriptHeader visitorHeader = AnnotationScanner.scan(visitor);
+        assertEquals(visitor.indexOf("class HelpedUpdater"), visitorHeader.getClassStart());
+        assertFalse(visitorHeader.isUpdater());
+
+        final String helperOnly = script.substring(0, script.indexOf("@Bootstrap"));
+        final ScriptHeader helperHeader = AnnotationScanner.scan(helperOnly);
+        assertEquals(helperOnly.indexOf("class Helper"), helperHeader.getClassStart());
+        assertEquals(1, helperHeader.getAnnotations().size());
+    }
+
+    @Test
+    void scanAllAnnotations() {
+        final String script = "@Updater(name = \"All\")\nclass Foo extends Bar {\n    @Deprecated(since = \"1\") void x() {} // @Exclude\n}";
+
+        final List<AnnotationSpan> annotations = AnnotationScanner.scanAnnotations(script);
+        assertEquals(2, annotations.size());
+        assertEquals("@Deprecated(since = \"1\")", annotations.get(1).getText());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.openweb.hippo.groovy.GroovyFileWalker;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GroovyFileWalkerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path createFile(final String path) throws IOException {
+        final Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, new byte[0]);
+    }
+
+    @Test
+    public void filesBeforeSubDirectoriesSortedByName() throws IOException {
+        final Path b = createFile("b.groovy");
+        final Path a = createFile("a.groovy");
+        createFile("readme.txt");
+        final Path subB = createFile("sub/b.groovy");
+        final Path subA = createFile("sub/a.groovy");
+        final Path deep = createFile("sub/deeper/c.groovy");
+        final Path other = createFile("a-dir/z.groovy");
+        Files.createDirectories(tempDir.resolve("dir.groovy"));
+        final Path inDirWithExtension = createFile("dir.groovy/x.groovy");
+
+        final List<Path> expected = Arrays.asList(a, b, other, inDirWithExtension, subA, subB, deep);
+        assertEquals(expected, GroovyFileWalker.walk(tempDir));
+        assertEquals(expected, GroovyFileWalker.walk(tempDir, 4));
+        assertEquals(expected, GroovyFileWalker.stream(tempDir).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void missingDirectoryHasNoFiles() {
+        final Path missing = tempDir.resolve("missing");
+        assertTrue(GroovyFileWalker.walk(missing).isEmpty());
+        assertTrue(GroovyFileWalker.walk(missing, 4).isEmpty());
+        assertEquals(0, GroovyFileWalker.stream(missing).count());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import nl.openweb.hippo.groovy.LineEndingNormalizer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LineEndingNormalizerTest {
+
+    @Test
+    public void normalizeLineEndings() {
+        assertEquals("a\nb\nc\nd", LineEndingNormalizer.normalize("a\r\nb\rc\nd"));
+        assertEquals("a\n\nb\n", LineEndingNormalizer.normalize("a\r\r\nb\r"));
+    }
+
+    @Test
+    public void removeTrailingWhitespace() {
+        assertEquals("a\n b\n\n", LineEndingNormalizer.normalize("a \t \r\n b\t\n  \r"));
+        assertEquals("a b \t", LineEndingNormalizer.normalize("a b \t"));
+    }
+
+    @Test
+    public void readFile() throws IOException {
+        final File file = File.createTempFile("normalizer", ".groovy");
+        file.deleteOnExit();
+        FileUtils.writeStringToFile(file, "caf\u00e9 \r\nline\t\r", StandardCharsets.UTF_8);
+
+        assertEquals("caf\u00e9\nline\n", LineEndingNormalizer.read(file.toPath(), StandardCharsets.UTF_8, 0));
+        assertEquals("caf\u00e9\nline\n", LineEndingNormalizer.read(file.toPath(), StandardCharsets.UTF_8, file.length()));
+        assertThrows(IOException.class, () -> LineEndingNormalizer.read(file.toPath(), StandardCharsets.UTF_8, file.length() - 1));
+    }
+
+    @Test
+    public void readFileLargerThanTheBuffer() throws IOException {
+        final File file = File.createTempFile("normalizer", ".groovy");
+        file.deleteOnExit();
+        final StringBuilder content = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            content.append("caf\u00e9 ").append(i).append(" \t\r\n");
+            expected.append("caf\u00e9 ").append(i).append('\n');
+        }
+        FileUtils.writeStringToFile(file, content.toString(), StandardCharsets.UTF_8);
+
+        assertEquals(expected.toString(), LineEndingNormalizer.read(file.toPath(), StandardCharsets.UTF_8, 0));
+    }
+}
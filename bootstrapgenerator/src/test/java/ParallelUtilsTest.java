@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import nl.openweb.hippo.groovy.ParallelUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelUtilsTest {
+
+    @Test
+    void keepsTheOrderOfTheItems() {
+        final List<Integer> items = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        for (int call = 0; call < 10; call++) {
+            assertEquals(items.stream().map(i -> i * 2).collect(Collectors.toList()), ParallelUtils.map(items, i -> i * 2, 4));
+        }
+    }
+
+    @Test
+    void throwsTheFailureOfAnItem() {
+        final List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ParallelUtils.map(items, i -> {
+            if (i == 42) {
+                throw new IllegalArgumentException("item " + i);
+            }
+            return i;
+        }, 4));
+        assertEquals("item 42", e.getMessage());
+    }
+}
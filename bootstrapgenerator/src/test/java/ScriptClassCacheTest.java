@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.openweb.hippo.groovy.ScriptClassCache;
+import nl.openweb.hippo.groovy.ScriptClassFactory.InterpretMode;
+import nl.openweb.hippo.groovy.exception.ScriptParseException;
+import nl.openweb.hippo.groovy.model.ScriptClass;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScriptClassCacheTest {
+
+    private static final long AN_HOUR_AGO = System.currentTimeMillis() - 3600_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private File copy(final String resource, final String name) throws URISyntaxException, IOException {
+        final Path target = tempDir.resolve(name);
+        Files.copy(new File(getClass().getResource(resource).toURI()).toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(target.toFile().setLastModified(AN_HOUR_AGO));
+        return target.toFile();
+    }
+
+    @Test
+    public void unchangedFileIsCached() throws URISyntaxException, IOException {
+        final ScriptClassCache cache = new ScriptClassCache();
+        final File file = copy("updater.groovy", "updater.groovy");
+        assertFalse(cache.isCached(file, false, InterpretMode.COMPILE));
+        final ScriptClass scriptClass = cache.getInterpretingClass(file, false, InterpretMode.COMPILE, 0);
+        assertEquals("Test Updater", scriptClass.getUpdater().name());
+        assertTrue(cache.isCached(file, false, InterpretMode.COMPILE));
+        assertFalse(cache.isCached(file, false, InterpretMode.PARSE));
+        assertSame(scriptClass, cache.getInterpretingClass(file, false, InterpretMode.COMPILE, 0));
+        assertNotSame(scriptClass, cache.getInterpretingClass(file, true, InterpretMode.COMPILE, 0));
+        assertNotSame(scriptClass, cache.getInterpretingClass(file, false, InterpretMode.PARSE, 0));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getHitCount());
+
+        final File sameFile = new File(file.getParentFile(), "./" + file.getName());
+        final ScriptClass sameScriptClass = cache.getInterpretingClass(sameFile, false, InterpretMode.COMPILE, 0);
+        assertSame(sameFile, sameScriptClass.getFile());
+        assertSame(scriptClass.getUpdater(), sameScriptClass.getUpdater());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void changedFileIsInterpretedAgain() throws URISyntaxException, IOException {
+        final ScriptClassCache cache = new ScriptClassCache();
+        final File file = copy("updater.groovy", "updater.groovy");
+        final ScriptClass scriptClass = cache.getInterpretingClass(file, false, InterpretMode.COMPILE, 0);
+
+        final String content = FileUtils.readFileToString(file, Charset.defaultCharset());
+        FileUtils.writeStringToFile(file, content.replace("Test Updater", "Test Updater Changed"), Charset.defaultCharset());
+        assertFalse(cache.isCached(file, false, InterpretMode.COMPILE));
+        final ScriptClass changed = cache.getInterpretingClass(file, false, InterpretMode.COMPILE, 0);
+        assertEquals("Test Updater Changed", changed.getUpdater().name());
+        assertEquals(0, cache.size(), "A file modified just now should not be cached");
+        assertNotSame(changed, cache.getInterpretingClass(file, false, InterpretMode.COMPILE, 0));
+        assertEquals(0, cache.getHitCount());
+        assertNotSame(scriptClass, changed);
+    }
+
+    @Test
+    public void negativeResultsAreCached() throws URISyntaxException, IOException {
+        final ScriptClassCache cache = new ScriptClassCache();
+        final File nonUpdater = copy("updater.groovy.stripped", "not-an-updater.groovy");
+        final ScriptClass scriptClass = cache.getInterpretingClass(nonUpdater, false, InterpretMode.COMPILE, 0);
+        assertNull(scriptClass.getUpdater());
+        assertSame(scriptClass, cache.getInterpretingClass(nonUpdater, false, InterpretMode.COMPILE, 0));
+
+        final File invalid = tempDir.resolve("invalid.groovy").toFile();
+        final String content = FileUtils.readFileToString(copy("updater.groovy", "invalid.groovy"), Charset.defaultCharset());
+        FileUtils.writeStringToFile(invalid, content.replace("Test Updater", "Test:updater"), Charset.defaultCharset());
+        assertTrue(invalid.setLastModified(AN_HOUR_AGO));
+        final ScriptParseException failure = assertThrows(ScriptParseException.class,
+            () -> cache.getInterpretingClass(invalid, false, InterpretMode.COMPILE, 0));
+        final ScriptParseException cachedFailure = assertThrows(ScriptParseException.class,
+            () -> cache.getInterpretingClass(invalid, false, InterpretMode.COMPILE, 0));
+        assertNotSame(failure, cachedFailure);
+        assertSame(failure.getCause(), cachedFailure.getCause());
+        assertEquals(failure.getMessage(), cachedFailure.getMessage());
+        assertEquals(2, cache.getHitCount());
+
+        assertNull(cache.getInterpretingClass(new File(tempDir.toFile(), "nonexistent.groovy"), false, InterpretMode.COMPILE, 0));
+        assertNull(cache.getInterpretingClass(nonUpdater, false, InterpretMode.COMPILE, nonUpdater.length() - 1));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws URISyntaxException, IOException {
+        final ScriptClassCache cache = new ScriptClassCache(2, Long.MAX_VALUE);
+        final File first = copy("updater.groovy", "first.groovy");
+        final File second = copy("updater2.groovy", "second.groovy");
+        final File third = copy("updater3.groovy", "third.groovy");
+        final ScriptClass firstClass = cache.getInterpretingClass(first, false, InterpretMode.PARSE, 0);
+        final ScriptClass secondClass = cache.getInterpretingClass(second, false, InterpretMode.PARSE, 0);
+        assertSame(firstClass, cache.getInterpretingClass(first, false, InterpretMode.PARSE, 0));
+        cache.getInterpretingClass(third, false, InterpretMode.PARSE, 0);
+        assertEquals(2, cache.size());
+        assertSame(firstClass, cache.getInterpretingClass(first, false, InterpretMode.PARSE, 0));
+        assertNotSame(secondClass, cache.getInterpretingClass(second, false, InterpretMode.PARSE, 0));
+
+        final ScriptClassCache lightCache = new ScriptClassCache(10, first.getCanonicalPath().length());
+        final ScriptClass lightClass = lightCache.getInterpretingClass(first, false, InterpretMode.PARSE, 0);
+        assertEquals(0, lightCache.size(), "Cache exceeds its weight");
+        assertNotSame(lightClass, lightCache.getInterpretingClass(first, false, InterpretMode.PARSE, 0));
+    }
+}
@@ -26,18 +26,25 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import nl.openweb.hippo.groovy.ScriptClassFactory;
+import nl.openweb.hippo.groovy.ScriptClassFactory.InterpretMode;
 import nl.openweb.hippo.groovy.exception.ScriptParseException;
 import nl.openweb.hippo.groovy.model.ScriptClass;
 import static nl.openweb.hippo.groovy.Generator.stripAnnotations;
+import static nl.openweb.hippo.groovy.ScriptClassFactory.MAX_CLASSES_PER_CLASS_LOADER;
 import static nl.openweb.hippo.groovy.ScriptClassFactory.readFileEnsuringLinuxLineEnding;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ScriptClassFactoryTest {
 
     private void testWithName(String updaterName) throws IOException, URISyntaxException {
+        testWithName(updaterName, InterpretMode.COMPILE);
+    }
+
+    private void testWithName(String updaterName, InterpretMode mode) throws IOException, URISyntaxException {
 
         URL testfileUrl = getClass().getResource("updater.groovy");
         final String content = readFileEnsuringLinuxLineEnding(new File(testfileUrl.toURI()));
@@ -46,7 +53,7 @@ public class ScriptClassFactoryTest {
         tempFile.deleteOnExit();
         FileUtils.writeStringToFile(tempFile,content.replace("Test Updater", updaterName), Charset.defaultCharset());
 
-        ScriptClassFactory.getInterpretingClass(tempFile);
+        ScriptClassFactory.getInterpretingClass(tempFile, false, mode);
     }
 
     @Test
@@ -60,6 +67,29 @@ public class ScriptClassFactoryTest {
         assertThrows(ScriptParseException.class, () -> testWithName("Test*updater"));
     }
 
+    @Test
+    public void checkValidUpdaterParsed() throws IOException, URISyntaxException {
+        testWithName("Test updater with no other things", InterpretMode.PARSE);
+        assertThrows(ScriptParseException.class, () -> testWithName("Test: updater", InterpretMode.PARSE));
+        assertThrows(ScriptParseException.class, () -> testWithName("Test/updater", InterpretMode.PARSE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"updater.groovy", "updater2.groovy", "updater3.groovy", "sub/updater3.groovy",
+        "edge-cases/CleanupPermanentFormdata.groovy.content"})
+    public void testParseMatchesCompile(String source) throws URISyntaxException {
+        File file = new File(getClass().getResource(source).toURI());
+
+        final ScriptClass compiled = ScriptClassFactory.getInterpretingClass(file, true, InterpretMode.COMPILE);
+        final ScriptClass parsed = ScriptClassFactory.getInterpretingClass(file, true, InterpretMode.PARSE);
+
+        assertEquals(compiled.isValid(), parsed.isValid());
+        assertEquals(compiled.isExcluded(), parsed.isExcluded());
+        assertEquals(compiled.getUpdater(), parsed.getUpdater());
+        assertEquals(compiled.getBootstrap(), parsed.getBootstrap());
+        assertEquals(compiled.getContent(), parsed.getContent());
+    }
+
     @Test
     public void checkValidUpdaterNameForNull() {
         final File tempFile = new File("nonexistentfile");
@@ -75,6 +105,37 @@ public class ScriptClassFactoryTest {
         assertNull(scriptClass.getUpdater());
     }
 
+    @Test
+    public void readFileWithMaxLength() throws URISyntaxException, IOException {
+        final File file = new File(getClass().getResource("updater.groovy").toURI());
+        assertEquals(readFileEnsuringLinuxLineEnding(file), readFileEnsuringLinuxLineEnding(file, file.length()));
+        assertThrows(IOException.class, () -> readFileEnsuringLinuxLineEnding(file, file.length() - 1));
+        assertNull(ScriptClassFactory.getInterpretingClass(file, false, InterpretMode.COMPILE, file.length() - 1));
+    }
+
+    @Test
+    public void interpretingClassLoaderIsReplaced() throws URISyntaxException {
+        final File file = new File(getClass().getResource("updater.groovy").toURI());
+        // parse until a new loader is used, so the count of its classes is known
+        final ClassLoader initialLoader = ScriptClassFactory.getClassLoader();
+        for (int i = 0; i <= MAX_CLASSES_PER_CLASS_LOADER && ScriptClassFactory.getClassLoader() == initialLoader; i++) {
+            ScriptClassFactory.getInterpretingClass(file);
+        }
+        assertNotSame(initialLoader, ScriptClassFactory.getClassLoader(), "Loader is not replaced");
+
+        final int loaders = 20;
+        final long replacedBefore = ScriptClassFactory.getReplacedClassLoaders();
+        ClassLoader loader = ScriptClassFactory.getClassLoader();
+        for (int parsed = 1; parsed <= loaders * MAX_CLASSES_PER_CLASS_LOADER; parsed++) {
+            ScriptClassFactory.getInterpretingClass(file);
+            final ClassLoader current = ScriptClassFactory.getClassLoader();
+            assertEquals(parsed % MAX_CLASSES_PER_CLASS_LOADER == 0, current != loader,
+                "Loader replacement after " + parsed + " scripts");
+            loader = current;
+        }
+        assertEquals(replacedBefore + loaders, ScriptClassFactory.getReplacedClassLoaders());
+    }
+
     @Test
     public void testStripAnnotations() throws URISyntaxException, IOException {
         URL testfileUrl = getClass().getResource("updater.groovy");
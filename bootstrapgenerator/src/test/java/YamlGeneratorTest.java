@@ -16,6 +16,7 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
@@ -24,13 +25,16 @@ import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import nl.openweb.hippo.groovy.GenerationContext;
 import nl.openweb.hippo.groovy.Generator;
 import nl.openweb.hippo.groovy.YamlGenerator;
 import nl.openweb.hippo.groovy.annotations.Bootstrap;
 import static nl.openweb.hippo.groovy.ScriptClassFactory.getInterpretingClass;
 import static nl.openweb.hippo.groovy.ScriptClassFactory.readFileEnsuringLinuxLineEnding;
 import static nl.openweb.hippo.groovy.YamlGenerator.getYamlString;
+import static nl.openweb.hippo.groovy.YamlGenerator.writeYaml;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 class YamlGeneratorTest {
@@ -74,9 +78,12 @@ class YamlGeneratorTest {
         Utilities.enforceWindowsFileEndings(file);
 
         final String yaml = getYamlString(YamlGenerator.getUpdateYamlScript(sourceDir, getInterpretingClass(file)));
+        final StringWriter writer = new StringWriter();
+        writeYaml(YamlGenerator.getUpdateYamlScript(sourceDir, getInterpretingClass(file)), writer);
 
         String expectedContentYaml = readFileEnsuringLinuxLineEnding(resultFileYaml);
         assertEquals(expectedContentYaml, yaml, "failed yaml parsing of " + name);
+        assertEquals(expectedContentYaml, writer.toString(), "failed yaml writing of " + name);
     }
 
     @Test
@@ -94,4 +101,24 @@ class YamlGeneratorTest {
         String unExpectedContentYaml = FileUtils.readFileToString(resultFileYaml, Charset.defaultCharset());
         assertNotEquals("failed yaml parsing of updater", unExpectedContentYaml, yaml);
     }
+
+    @Test
+    void contextDefaultContentRootYamlFile() throws URISyntaxException, IOException {
+        Generator.setDefaultContentRoot(Bootstrap.ContentRoot.REGISTRY);
+        URL testfileUrl = getClass().getResource("updater.groovy");
+        URL testfileResultUrlYaml = getClass().getResource("updater.yaml");
+
+        File file = new File(testfileUrl.toURI());
+        File resultFileYaml = new File(testfileResultUrlYaml.toURI());
+        Utilities.enforceWindowsFileEndings(file);
+
+        final GenerationContext context = new GenerationContext(sourceDir, Bootstrap.ContentRoot.QUEUE);
+        final String yaml = getYamlString(YamlGenerator.getUpdateYamlScript(context, getInterpretingClass(file)));
+
+        assertEquals(readFileEnsuringLinuxLineEnding(resultFileYaml), yaml, "failed yaml parsing of updater");
+        assertEquals(Bootstrap.ContentRoot.REGISTRY, new GenerationContext(sourceDir).getDefaultContentRoot());
+        // only a script declaring the registry content root is wrapped in definitions, as before the context existed
+        final GenerationContext registryContext = new GenerationContext(sourceDir, Bootstrap.ContentRoot.REGISTRY);
+        assertFalse(YamlGenerator.getUpdateYamlScript(registryContext, getInterpretingClass(file)).containsKey("definitions"));
+    }
 }
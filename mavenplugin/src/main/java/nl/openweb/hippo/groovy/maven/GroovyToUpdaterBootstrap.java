@@ -22,7 +22,7 @@ import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Parameter;
 
-import nl.openweb.hippo.groovy.Generator;
+import nl.openweb.hippo.groovy.ScriptClassFactory.InterpretMode;
 import nl.openweb.hippo.groovy.annotations.Bootstrap;
 import nl.openweb.hippo.groovy.maven.processor.ScriptProcessor;
 
@@ -37,6 +37,12 @@ public abstract class GroovyToUpdaterBootstrap extends AbstractMojo {
     private File targetDir;
     @Parameter(defaultValue = "queue", property = "defaultContentRoot")
     private String defaultContentRoot;
+    @Parameter(defaultValue = "compile", property = "interpretMode")
+    private String interpretMode;
+    @Parameter(defaultValue = "1", property = "threads")
+    private int threads;
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
 
     public void execute() {
         logPluginConfigurationItems();
@@ -48,6 +54,7 @@ public abstract class GroovyToUpdaterBootstrap extends AbstractMojo {
         final Log log = getLog();
         log.info("sourceDir: " + sourceDir.getAbsolutePath());
         log.info("targetDir: " + targetDir.getAbsolutePath());
+        log.info("threads: " + threads);
     }
 
     private ScriptProcessor getProcessor() {
@@ -55,7 +62,11 @@ public abstract class GroovyToUpdaterBootstrap extends AbstractMojo {
         processor.setLog(getLog());
         processor.setTargetDir(targetDir);
         processor.setSourceDir(sourceDir);
-        Generator.setDefaultContentRoot(defaultContentRoot.equalsIgnoreCase("registry") ?
+        processor.setInterpretMode(interpretMode.equalsIgnoreCase("parse") ?
+            InterpretMode.PARSE : InterpretMode.COMPILE);
+        processor.setThreads(threads);
+        processor.setVersion(pluginVersion);
+        processor.setDefaultContentRoot(defaultContentRoot.equalsIgnoreCase("registry") ?
             Bootstrap.ContentRoot.REGISTRY : Bootstrap.ContentRoot.QUEUE);
         return processor;
     }
@@ -15,6 +15,8 @@
  */
 package nl.openweb.hippo.groovy.maven;
 
+import java.io.File;
+
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
@@ -29,11 +31,20 @@ public class GroovyToUpdaterYamlBootstrap extends GroovyToUpdaterBootstrap {
     @Parameter(defaultValue = "hcm-config/configuration/update", property = "yamlConfigurationPath")
     private String yamlConfigurationPath;
 
+    @Parameter(defaultValue = "false", property = "incremental")
+    private boolean incremental;
+
+    @Parameter(defaultValue = "${project.build.directory}/groovy-updater/fingerprints.yaml", property = "fingerprintIndex")
+    private File fingerprintIndex;
+
     @Override
     protected void logPluginConfigurationItems() {
         super.logPluginConfigurationItems();
         getLog().info("yamlContentPath: " + yamlContentPath);
         getLog().info("yamlConfigPath: " + yamlConfigurationPath);
+        if (incremental) {
+            getLog().info("fingerprintIndex: " + fingerprintIndex.getAbsolutePath());
+        }
     }
 
     @Override
@@ -41,6 +52,7 @@ public class GroovyToUpdaterYamlBootstrap extends GroovyToUpdaterBootstrap {
         ScriptProcessorYAML processor = new ScriptProcessorYAML();
         processor.setYamlContentPath(yamlContentPath);
         processor.setYamlConfigurationPath(yamlConfigurationPath);
+        processor.setFingerprintIndex(incremental ? fingerprintIndex : null);
         return processor;
     }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.maven.processor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output stream that compares what is written with the content of an existing file. Nothing is written to disk as long
+ * as the content is the same. From the first difference on, the content goes to a temporary file, starting with the
+ * part of the existing file that was the same.
+ */
+class ComparingOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path file;
+    private final Path temp;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private InputStream existing;
+    private OutputStream out;
+    private long matched;
+    private boolean closed;
+
+    /**
+     * @param file the file to compare with, which may not exist
+     * @param temp the file to write the content to when it differs
+     * @throws IOException when the existing file cannot be read
+     */
+    ComparingOutputStream(final Path file, final Path temp) throws IOException {
+        this.file = file;
+        this.temp = temp;
+        try {
+            existing = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        } catch (NoSuchFileException e) {
+            existing = null;
+        }
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (out == null && existing != null && existing.read() == (b & 0xFF)) {
+            matched++;
+            return;
+        }
+        differ();
+        out.write(b);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int off, final int len) throws IOException {
+        int index = 0;
+        while (out == null && existing != null && index < len) {
+            final int chunk = Math.min(buffer.length, len - index);
+            final int read = existing.readNBytes(buffer, 0, chunk);
+            int same = 0;
+            while (same < read && buffer[same] == bytes[off + index + same]) {
+                same++;
+            }
+            matched += same;
+            index += same;
+            if (same < chunk) {
+                break;
+            }
+        }
+        if (index < len) {
+            differ();
+            out.write(bytes, off + index, len - index);
+        }
+    }
+
+    /**
+     * Start writing the temporary file, with the part of the existing file that matched so far
+     */
+    private void differ() throws IOException {
+        if (out != null) {
+            return;
+        }
+        closeExisting();
+        out = new BufferedOutputStream(Files.newOutputStream(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), BUFFER_SIZE);
+        if (matched > 0) {
+            try (InputStream in = Files.newInputStream(file)) {
+                long remaining = matched;
+                int read;
+                while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                    out.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Finish the comparison: an existing file that is longer than the content differs as well
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (out == null && (existing == null || existing.read() != -1)) {
+                differ();
+            }
+        } finally {
+            closeExisting();
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    private void closeExisting() throws IOException {
+        if (existing != null) {
+            existing.close();
+            existing = null;
+        }
+    }
+
+    /**
+     * @return whether the content differs from the existing file, only final after closing
+     */
+    boolean isChanged() {
+        return out != null;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.maven.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+/**
+ * Index of the groovy scripts processed in a previous run, with the hashes of their sources and the files generated
+ * from them. Paths of scripts and dependencies are relative to the source directory, outputs are relative to the
+ * target directory.
+ */
+public class FingerprintIndex {
+    private static final String SETTINGS = "settings";
+    private static final String SCRIPTS = "scripts";
+    private static final String HASH = "hash";
+    private static final String DEPENDENCIES = "dependencies";
+    private static final String OUTPUTS = "outputs";
+
+    private final String settings;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    public FingerprintIndex(final String settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Load the index from file
+     *
+     * @param file     the index file
+     * @param settings the generation settings of the current run
+     * @return the stored index, or an empty index when there is none or it was made with other settings
+     * @throws IOException when the index file cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public static FingerprintIndex load(final File file, final String settings) throws IOException {
+        final FingerprintIndex index = new FingerprintIndex(settings);
+        if (!file.isFile()) {
+            return index;
+        }
+        final Map<String, Object> stored;
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            stored = new Yaml(new SafeConstructor()).load(reader);
+        }
+        if (stored == null || !settings.equals(stored.get(SETTINGS)) || !(stored.get(SCRIPTS) instanceof Map)) {
+            return index;
+        }
+        for (final Map.Entry<String, Map<String, Object>> script : ((Map<String, Map<String, Object>>) stored.get(SCRIPTS)).entrySet()) {
+            final Map<String, Object> value = script.getValue();
+            index.put(script.getKey(), new Entry((String) value.get(HASH),
+                (Map<String, String>) value.get(DEPENDENCIES), (List<String>) value.get(OUTPUTS)));
+        }
+        return index;
+    }
+
+    public void save(final File file) throws IOException {
+        final Map<String, Object> scripts = new LinkedHashMap<>();
+        for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+            final Map<String, Object> value = new LinkedHashMap<>();
+            value.put(HASH, entry.getValue().getHash());
+            value.put(DEPENDENCIES, entry.getValue().getDependencies());
+            value.put(OUTPUTS, entry.getValue().getOutputs());
+            scripts.put(entry.getKey(), value);
+        }
+        final Map<String, Object> index = new LinkedHashMap<>();
+        index.put(SETTINGS, settings);
+        index.put(SCRIPTS, scripts);
+
+        final DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            new Yaml(options).dump(index, writer);
+        }
+    }
+
+    public Entry get(final String script) {
+        return entries.get(script);
+    }
+
+    public Entry remove(final String script) {
+        return entries.remove(script);
+    }
+
+    public void put(final String script, final Entry entry) {
+        entries.put(script, entry);
+    }
+
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public static class Entry {
+        private final String hash;
+        private final Map<String, String> dependencies;
+        private final List<String> outputs;
+
+        public Entry(final String hash, final Map<String, String> dependencies, final List<String> outputs) {
+            this.hash = hash;
+            this.dependencies = dependencies == null ? new TreeMap<>() : new TreeMap<>(dependencies);
+            this.outputs = outputs == null ? new ArrayList<>() : new ArrayList<>(outputs);
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public Map<String, String> getDependencies() {
+            return dependencies;
+        }
+
+        public List<String> getOutputs() {
+            return outputs;
+        }
+    }
+}
@@ -16,39 +16,72 @@
 package nl.openweb.hippo.groovy.maven.processor;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
 
 import org.apache.maven.plugin.logging.Log;
 
+import nl.openweb.hippo.groovy.GenerationContext;
+import nl.openweb.hippo.groovy.Generator;
+import nl.openweb.hippo.groovy.HashUtils;
+import nl.openweb.hippo.groovy.ParallelUtils;
+import nl.openweb.hippo.groovy.PropertyCollector;
+import nl.openweb.hippo.groovy.ScriptClassFactory.InterpretMode;
+import nl.openweb.hippo.groovy.annotations.Bootstrap;
 import nl.openweb.hippo.groovy.model.ScriptClass;
 import static java.util.stream.Collectors.toList;
+import static nl.openweb.hippo.groovy.ScriptClassFactory.getInterpretingClass;
 import static nl.openweb.hippo.groovy.ScriptClassFactory.getScriptClasses;
 
 public abstract class ScriptProcessor {
+    /**
+     * Hash recorded for a dependency that does not exist, so the script is processed again once it does
+     */
+    private static final String MISSING_FILE_HASH = "missing";
+
     protected Log log;
     protected File sourceDir;
     protected File targetDir;
+    protected InterpretMode interpretMode = InterpretMode.COMPILE;
+    protected int threads = 1;
+    protected Bootstrap.ContentRoot defaultContentRoot;
+    protected String version;
+    protected File fingerprintIndex;
 
     /**
-     * Generate updater files from groovy scripts
+     * Generate updater files from groovy scripts. When a fingerprint index is set, only the scripts that changed since
+     * the previous run are processed.
      *
      * @return list of valid parsed groovy files
      */
     public List<ScriptClass> processUpdateScripts() {
-        return processUpdateScripts(getScriptClasses(sourceDir));
+        if (fingerprintIndex != null) {
+            return processChangedUpdateScripts();
+        }
+        return processUpdateScripts(getScriptClasses(sourceDir, interpretMode, threads));
     }
 
     public abstract List<ScriptClass> processUpdateScripts(final List<ScriptClass> scriptClasses);
 
     /**
-     * Generate updater files from groovy scripts
+     * Generate updater files from groovy scripts, using up to {@link #threads} threads
      *
      * @param scriptClasses groovy scripts to parse
-     * @return list of valid parsed groovy files
+     * @return list of valid parsed groovy files, in the order of the given scripts
      */
     protected List<ScriptClass> processGroovyScripts(final List<ScriptClass> scriptClasses) {
         getLog().info("Converting " + scriptClasses.size() + " groovy scripts to bootstrap format");
-        return scriptClasses.stream().filter(this::processUpdateScript).collect(toList());
+        final List<Boolean> processed = ParallelUtils.map(scriptClasses, this::processUpdateScript, threads);
+        return IntStream.range(0, scriptClasses.size()).filter(processed::get).mapToObj(scriptClasses::get).collect(toList());
     }
 
     /**
@@ -59,6 +92,145 @@ public abstract class ScriptProcessor {
      */
     protected abstract boolean processUpdateScript(final ScriptClass scriptClass);
 
+    /**
+     * @param scriptClass groovy script
+     * @return the file generated from the script
+     */
+    protected abstract File getTargetFile(final ScriptClass scriptClass);
+
+    /**
+     * @return the settings of this processor that influence the generated files
+     */
+    protected GenerationContext getGenerationContext() {
+        return new GenerationContext(sourceDir, defaultContentRoot);
+    }
+
+    /**
+     * @return description of all settings that influence the generated files
+     */
+    protected String getGenerationSettings() {
+        return "version=" + version + ", interpretMode=" + interpretMode + ", defaultContentRoot=" +
+            getGenerationContext().getDefaultContentRoot();
+    }
+
+    /**
+     * Generate updater files for the groovy scripts that changed since the previous run, and remove the files
+     * generated from scripts that are gone
+     *
+     * @return list of valid parsed groovy files that were processed
+     */
+    protected List<ScriptClass> processChangedUpdateScripts() {
+        final FingerprintIndex previous = loadFingerprintIndex();
+        final FingerprintIndex current = new FingerprintIndex(getGenerationSettings());
+        final Set<String> staleOutputs = new HashSet<>();
+        final List<File> changedFiles = new ArrayList<>();
+        for (final File file : Generator.getGroovyFiles(sourceDir, threads)) {
+            final String script = relativize(sourceDir, file);
+            final FingerprintIndex.Entry entry = previous.remove(script);
+            if (entry != null && isUpToDate(file, entry)) {
+                current.put(script, entry);
+            } else {
+                changedFiles.add(file);
+                if (entry != null) {
+                    staleOutputs.addAll(entry.getOutputs());
+                }
+            }
+        }
+        previous.getEntries().forEach(entry -> staleOutputs.addAll(entry.getOutputs()));
+        getLog().info("Skipping " + current.size() + " unchanged groovy scripts");
+
+        final List<ScriptClass> scriptClasses = ParallelUtils.map(changedFiles,
+            file -> getInterpretingClass(file, false, interpretMode), threads);
+        final List<ScriptClass> validScripts = scriptClasses.stream()
+            .filter(script -> script != null && script.isValid() && !script.isExcluded()).collect(toList());
+        final Set<ScriptClass> valid = Collections.newSetFromMap(new IdentityHashMap<>());
+        valid.addAll(validScripts);
+        final Set<ScriptClass> processed = Collections.newSetFromMap(new IdentityHashMap<>());
+        processed.addAll(processUpdateScripts(validScripts));
+
+        for (int i = 0; i < changedFiles.size(); i++) {
+            final ScriptClass scriptClass = scriptClasses.get(i);
+            final String hash = getHash(changedFiles.get(i));
+            if (hash == null || scriptClass == null || (valid.contains(scriptClass) && !processed.contains(scriptClass))) {
+                //not recorded, so it is processed again next time
+                continue;
+            }
+            final FingerprintIndex.Entry entry = processed.contains(scriptClass) ?
+                new FingerprintIndex.Entry(hash, getDependencies(scriptClass),
+                    Collections.singletonList(relativize(targetDir, getTargetFile(scriptClass)))) :
+                new FingerprintIndex.Entry(hash, null, null);
+            current.put(relativize(sourceDir, changedFiles.get(i)), entry);
+        }
+        current.getEntries().forEach(entry -> staleOutputs.removeAll(entry.getOutputs()));
+        staleOutputs.stream().sorted().map(output -> new File(targetDir, output)).forEach(this::deleteStaleOutput);
+        saveFingerprintIndex(current);
+        return validScripts.stream().filter(processed::contains).collect(toList());
+    }
+
+    private FingerprintIndex loadFingerprintIndex() {
+        try {
+            return FingerprintIndex.load(fingerprintIndex, getGenerationSettings());
+        } catch (IOException | RuntimeException e) {
+            getLog().warn("Unable to read fingerprint index " + fingerprintIndex.getAbsolutePath() + ", processing all scripts", e);
+            return new FingerprintIndex(getGenerationSettings());
+        }
+    }
+
+    private void saveFingerprintIndex(final FingerprintIndex index) {
+        try {
+            index.save(fingerprintIndex);
+        } catch (IOException e) {
+            getLog().warn("Unable to write fingerprint index " + fingerprintIndex.getAbsolutePath(), e);
+        }
+    }
+
+    private boolean isUpToDate(final File file, final FingerprintIndex.Entry entry) {
+        return entry.getHash() != null && entry.getHash().equals(getHash(file)) &&
+            entry.getDependencies().entrySet().stream()
+                .allMatch(dependency -> dependency.getValue().equals(getDependencyHash(new File(sourceDir, dependency.getKey())))) &&
+            entry.getOutputs().stream().allMatch(output -> new File(targetDir, output).isFile());
+    }
+
+    private Map<String, String> getDependencies(final ScriptClass scriptClass) {
+        final Map<String, String> dependencies = new TreeMap<>();
+        try {
+            final File parametersFile = PropertyCollector.getParametersFile(scriptClass, sourceDir);
+            if (parametersFile != null) {
+                dependencies.put(relativize(sourceDir, parametersFile), getDependencyHash(parametersFile));
+            }
+        } catch (InvalidPathException e) {
+            //parameters that are not a path do not have a file to depend on
+        }
+        return dependencies;
+    }
+
+    private String getHash(final File file) {
+        try {
+            return file.isFile() ? HashUtils.sha256(file) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String getDependencyHash(final File file) {
+        final String hash = getHash(file);
+        return hash == null ? MISSING_FILE_HASH : hash;
+    }
+
+    private void deleteStaleOutput(final File file) {
+        if (file.isFile()) {
+            getLog().info("Removing " + file.getAbsolutePath());
+            if (!file.delete()) {
+                getLog().warn("Unable to remove " + file.getAbsolutePath());
+            }
+        }
+    }
+
+    private static String relativize(final File base, final File file) {
+        return base.getAbsoluteFile().toPath().normalize()
+            .relativize(file.getAbsoluteFile().toPath().normalize()).toString().replace(File.separatorChar, '/');
+    }
+
     protected Log getLog() {
         return log;
     }
@@ -74,4 +246,34 @@ public abstract class ScriptProcessor {
     public void setTargetDir(final File targetDir) {
         this.targetDir = targetDir;
     }
+
+    public void setInterpretMode(final InterpretMode interpretMode) {
+        this.interpretMode = interpretMode;
+    }
+
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * @param defaultContentRoot the content root of scripts that do not specify one, null for
+     *                           {@link Generator#getDefaultContentRoot()}
+     */
+    public void setDefaultContentRoot(final Bootstrap.ContentRoot defaultContentRoot) {
+        this.defaultContentRoot = defaultContentRoot;
+    }
+
+    /**
+     * @param version the version of the generator, generated files are not reused after it changes
+     */
+    public void setVersion(final String version) {
+        this.version = version;
+    }
+
+    /**
+     * @param fingerprintIndex file to keep the fingerprints in, null to always process all scripts
+     */
+    public void setFingerprintIndex(final File fingerprintIndex) {
+        this.fingerprintIndex = fingerprintIndex;
+    }
 }
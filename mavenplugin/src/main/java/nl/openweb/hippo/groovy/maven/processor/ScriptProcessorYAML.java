@@ -15,23 +15,35 @@
  */
 package nl.openweb.hippo.groovy.maven.processor;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
 
 import nl.openweb.hippo.groovy.annotations.Bootstrap;
 import nl.openweb.hippo.groovy.model.ScriptClass;
 import static nl.openweb.hippo.groovy.YamlGenerator.getUpdateScriptYamlFilename;
 import static nl.openweb.hippo.groovy.YamlGenerator.getUpdateYamlScript;
-import static nl.openweb.hippo.groovy.YamlGenerator.getYamlString;
+import static nl.openweb.hippo.groovy.YamlGenerator.writeYaml;
 
 public class ScriptProcessorYAML extends ScriptProcessor {
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    private static final int BUFFER_SIZE = 8192;
     protected String yamlContentPath;
     protected String yamlConfigurationPath;
+    private final AtomicInteger writtenFiles = new AtomicInteger();
+    private final AtomicInteger unchangedFiles = new AtomicInteger();
 
     /**
      * Generate updater yaml files from groovy scripts
@@ -41,7 +53,11 @@ public class ScriptProcessorYAML extends ScriptProcessor {
      */
     @Override
     public List<ScriptClass> processUpdateScripts(final List<ScriptClass> groovyFiles) {
-        return processGroovyScripts(groovyFiles);
+        writtenFiles.set(0);
+        unchangedFiles.set(0);
+        final List<ScriptClass> processed = processGroovyScripts(groovyFiles);
+        getLog().info("Wrote " + writtenFiles.get() + " yaml files, " + unchangedFiles.get() + " were already up to date");
+        return processed;
     }
 
     /**
@@ -53,30 +69,79 @@ public class ScriptProcessorYAML extends ScriptProcessor {
     @Override
     protected boolean processUpdateScript(final ScriptClass scriptClass) {
         getLog().debug("Converting " + scriptClass.getFile().getAbsolutePath() + " to updater yaml");
-        final String updateScript = getYamlString(getUpdateYamlScript(sourceDir, scriptClass));
-        if (StringUtils.isBlank(updateScript)) {
+        final Map<String, Map<String, Object>> updateScript = getUpdateYamlScript(getGenerationContext(), scriptClass);
+        if (updateScript == null || updateScript.isEmpty()) {
             getLog().warn("Skipping file: " + scriptClass.getFile().getAbsolutePath() + ", not a valid updatescript");
             return false;
         }
+        final File targetFile = getTargetFile(scriptClass);
+        targetFile.getParentFile().mkdirs();
+        return marshal(updateScript, targetFile);
+    }
+
+    @Override
+    protected File getTargetFile(final ScriptClass scriptClass) {
         final String targetPath =
             Bootstrap.ContentRoot.REGISTRY.equals(scriptClass.getBootstrap(true).contentroot()) ?
                 yamlConfigurationPath : yamlContentPath;
-        final File targetFile = new File(new File(targetDir, targetPath), getUpdateScriptYamlFilename(sourceDir, scriptClass));
-        targetFile.getParentFile().mkdirs();
-        return marshal(updateScript, targetFile);
+        return new File(new File(targetDir, targetPath), getUpdateScriptYamlFilename(getGenerationContext(), scriptClass));
     }
 
-    protected boolean marshal(final String fileContent, final File file) {
+    @Override
+    protected String getGenerationSettings() {
+        return super.getGenerationSettings() + ", yamlContentPath=" + yamlContentPath +
+            ", yamlConfigurationPath=" + yamlConfigurationPath;
+    }
+
+    /**
+     * Write the yaml document to the file, comparing it with the content of the file while writing. Only when it
+     * differs, the yaml is written to a temporary file next to the target file, which then replaces the target file.
+     *
+     * @param yaml the yaml document to write
+     * @param file the file to write to
+     * @return writing successful
+     */
+    protected boolean marshal(final Map<?, ?> yaml, final File file) {
+        final Path target = file.toPath();
+        final Path temp = target.resolveSibling("." + target.getFileName() + TEMP_FILE_EXTENSION);
         try {
+            final ComparingOutputStream out = new ComparingOutputStream(target, temp);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()), BUFFER_SIZE)) {
+                writeYaml(yaml, writer);
+            }
+            if (!out.isChanged()) {
+                getLog().debug("Unchanged " + file.getAbsolutePath());
+                unchangedFiles.incrementAndGet();
+                return true;
+            }
             getLog().info("Writing " + file.getAbsolutePath());
-            FileUtils.write(file, fileContent, Charset.defaultCharset());
+            moveReplacing(temp, target);
+            writtenFiles.incrementAndGet();
             return true;
         } catch (final IOException e) {
             getLog().error("Error parsing to yaml: " + file.getAbsolutePath(), e);
             return false;
+        } finally {
+            FileUtils.deleteQuietly(temp.toFile());
+        }
+    }
+
+    private static void moveReplacing(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
+    public int getWrittenFiles() {
+        return writtenFiles.get();
+    }
+
+    public int getUnchangedFiles() {
+        return unchangedFiles.get();
+    }
+
     public void setYamlContentPath(final String yamlPath) {
         this.yamlContentPath = yamlPath;
     }
@@ -19,6 +19,7 @@ package nl.openweb.hippo.groovy.maven;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 
@@ -29,11 +30,14 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import nl.openweb.hippo.groovy.ScriptClassFactory.InterpretMode;
 import nl.openweb.hippo.groovy.maven.processor.ScriptProcessor;
 import nl.openweb.hippo.groovy.maven.processor.ScriptProcessorYAML;
 import static nl.openweb.hippo.groovy.ScriptClassFactory.getScriptClasses;
 import static nl.openweb.tools.Tools.compareFolders;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class ScriptProcessorTest {
 
@@ -42,11 +46,36 @@ public class ScriptProcessorTest {
 
     @Test
     public void testYaml() throws URISyntaxException, MojoExecutionException, IOException {
+        testYaml("yaml_output", 1);
+    }
+
+    @Test
+    public void testYamlParallel() throws URISyntaxException, MojoExecutionException, IOException {
+        testYaml("yaml_output_parallel", 4);
+    }
+
+    @Test
+    public void testYamlUnchangedNotWritten() throws URISyntaxException, MojoExecutionException, IOException {
+        testYaml("yaml_output_unchanged", 1);
+        File output = new File(new File(getClass().getResource("/").toURI()), "yaml_output_unchanged");
+        File updaterYaml = new File(output, "hcm-content/configuration/update/updater.yaml");
+        assertTrue(updaterYaml.setLastModified(1000L));
+
+        File input = new File(getClass().getResource("/src/main/scripts").toURI());
+        processor.processUpdateScripts(getScriptClasses(input));
+
+        assertEquals(1000L, updaterYaml.lastModified());
+        assertEquals(0, ((ScriptProcessorYAML) processor).getWrittenFiles());
+        assertEquals(7, ((ScriptProcessorYAML) processor).getUnchangedFiles());
+    }
+
+    private void testYaml(final String outputFolder, final int threads) throws URISyntaxException, MojoExecutionException, IOException {
         processor = new ScriptProcessorYAML();
         processor.setLog(new SystemStreamLog());
+        processor.setThreads(threads);
 
         File input = new File(getClass().getResource("/src/main/scripts").toURI());
-        File yaml_output = new File(new File(getClass().getResource("/").toURI()), "yaml_output");
+        File yaml_output = new File(new File(getClass().getResource("/").toURI()), outputFolder);
 
         File resource = new File(getClass()
             .getResource("/src/main/resources/hcm-actions.yaml").toURI());
@@ -66,9 +95,73 @@ public class ScriptProcessorTest {
         }
         targetResource.mkdirs();
         Files.copy(resource.toPath(), targetResource.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        processor.processUpdateScripts(getScriptClasses(input));
+        processor.processUpdateScripts(getScriptClasses(input, InterpretMode.COMPILE, threads));
         File yaml_expected = new File(getClass().getResource("/target_yaml").toURI());
 
         compareFolders(yaml_expected, yaml_output);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testYamlIncremental() throws URISyntaxException, IOException {
+        File input = new File(getClass().getResource("/src/main/scripts").toURI());
+        File root = new File(getClass().getResource("/").toURI());
+        File source = new File(root, "incremental_scripts");
+        File yaml_output = new File(root, "yaml_output_incremental");
+        File index = new File(root, "incremental_fingerprints.yaml");
+        FileUtils.deleteDirectory(source);
+        FileUtils.deleteDirectory(yaml_output);
+        FileUtils.deleteQuietly(index);
+        FileUtils.copyDirectory(input, source);
+        FileUtils.copyFile(new File(getClass().getResource("/src/main/resources/hcm-actions.yaml").toURI()),
+            new File(yaml_output, "hcm-actions.yaml"));
+
+        assertEquals(7, getIncrementalProcessor(source, yaml_output, index).processUpdateScripts().size());
+        compareFolders(new File(getClass().getResource("/target_yaml").toURI()), yaml_output);
+        assertTrue(index.exists());
+
+        assertEquals(0, getIncrementalProcessor(source, yaml_output, index).processUpdateScripts().size());
+
+        FileUtils.write(new File(source, "updater.groovy"), "\n//changed\n", Charset.defaultCharset(), true);
+        assertEquals(1, getIncrementalProcessor(source, yaml_output, index).processUpdateScripts().size());
+
+        File removedOutput = new File(yaml_output, "hcm-content/configuration/update/sub/updater3.yaml");
+        assertTrue(removedOutput.exists());
+        assertTrue(new File(source, "sub/updater3.groovy").delete());
+        assertEquals(0, getIncrementalProcessor(source, yaml_output, index).processUpdateScripts().size());
+        assertFalse(removedOutput.exists());
+    }
+
+    @Test
+    public void testYamlIncrementalParametersFileCreated() throws URISyntaxException, IOException {
+        File root = new File(getClass().getResource("/").toURI());
+        File source = new File(root, "incremental_parameters_scripts");
+        File yaml_output = new File(root, "yaml_output_incremental_parameters");
+        File index = new File(root, "incremental_parameters_fingerprints.yaml");
+        FileUtils.deleteDirectory(source);
+        FileUtils.deleteDirectory(yaml_output);
+        FileUtils.deleteQuietly(index);
+        FileUtils.write(new File(source, "parameters.groovy"), "import nl.openweb.hippo.groovy.annotations.Updater\n\n" +
+            "@Updater(name = \"Parameters Updater\", path = \"/content\", parameters = \"parameters.json\")\n" +
+            "class ParametersUpdater extends BaseNodeUpdateVisitor {\n}\n", Charset.defaultCharset());
+        File output = new File(yaml_output, "hcm-content/configuration/update/parameters.yaml");
+
+        assertEquals(1, getIncrementalProcessor(source, yaml_output, index).processUpdateScripts().size());
+        assertTrue(FileUtils.readFileToString(output, Charset.defaultCharset()).contains("parameters.json"));
+        assertEquals(0, getIncrementalProcessor(source, yaml_output, index).processUpdateScripts().size());
+
+        FileUtils.write(new File(source, "parameters.json"), "{\"created\": true}", Charset.defaultCharset());
+        assertEquals(1, getIncrementalProcessor(source, yaml_output, index).processUpdateScripts().size());
+        assertTrue(FileUtils.readFileToString(output, Charset.defaultCharset()).contains("{\"created\": true}"));
+    }
+
+    private ScriptProcessor getIncrementalProcessor(final File source, final File target, final File index) {
+        ScriptProcessorYAML yamlProcessor = new ScriptProcessorYAML();
+        yamlProcessor.setLog(new SystemStreamLog());
+        yamlProcessor.setSourceDir(source);
+        yamlProcessor.setTargetDir(target);
+        yamlProcessor.setYamlContentPath("hcm-content/configuration/update");
+        yamlProcessor.setYamlConfigurationPath("hcm-config/configuration/update");
+        yamlProcessor.setFingerprintIndex(index);
+        return yamlProcessor;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package nl.openweb.hippo.groovy;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of importing a set of groovy files with {@link GroovyFilesService#importGroovyFiles(javax.jcr.Session,
+ * java.util.Collection, int, int)}
+ */
+public class GroovyFilesImportResult {
+    private final List<File> imported = new ArrayList<>();
+    private final List<File> unchanged = new ArrayList<>();
+    private final List<File> skipped = new ArrayList<>();
+    private final Map<File, String> failed = new LinkedHashMap<>();
+    private int saves;
+
+    void addImported(final File file) {
+        imported.add(file);
+    }
+
+    void addUnchanged(final File file) {
+        unchanged.add(file);
+    }
+
+    void addSkipped(final File file) {
+        skipped.add(file);
+    }
+
+    void addFailed(final File file, final String reason) {
+        failed.put(file, reason);
+    }
+
+    void addSave() {
+        saves++;
+    }
+
+    /**
+     * Add the outcome of importing another set of groovy files to this result
+     *
+     * @param other the result to add
+     */
+    public void addAll(final GroovyFilesImportResult other) {
+        imported.addAll(other.imported);
+        unchanged.addAll(other.unchanged);
+        skipped.addAll(other.skipped);
+        failed.putAll(other.failed);
+        saves += other.saves;
+    }
+
+    /**
+     * @return the files that are created or changed in the repository
+     */
+    public List<File> getImported() {
+        return Collections.unmodifiableList(imported);
+    }
+
+    /**
+     * @return the files that already matched their node in the repository
+     */
+    public List<File> getUnchanged() {
+        return Collections.unmodifiableList(unchanged);
+    }
+
+    /**
+     * @return the files that are not (valid) updater scripts
+     */
+    public List<File> getSkipped() {
+        return Collections.unmodifiableList(skipped);
+    }
+
+    /**
+     * @return the files that could not be imported, with the reason
+     */
+    public Map<File, String> getFailed() {
+        return Collections.unmodifiableMap(failed);
+    }
+
+    /**
+     * @return the number of session saves it took
+     */
+    public int getSaves() {
+        return saves;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d imported, %d unchanged, %d skipped, %d failed in %d save(s)", imported.size(), unchanged.size(),
+            skipped.size(), failed.size(), saves);
+    }
+}
@@ -36,13 +36,41 @@
 package nl.openweb.hippo.groovy;
 
 import java.io.File;
+import java.util.Collection;
 
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
 public interface GroovyFilesService {
 
+    /**
+     * Import all groovy files in a directory and save them
+     *
+     * @param session jcr session to use
+     * @param file    directory to import the groovy files from
+     */
     void importGroovyFiles(Session session, File file);
 
+    /**
+     * Update the node of a groovy file, without saving the session
+     *
+     * @param session jcr session to use
+     * @param file    file to transform
+     * @return success
+     * @throws RepositoryException when updating the node fails
+     */
     boolean importGroovyFile(Session session, File file) throws RepositoryException;
+
+    /**
+     * Import groovy files and save them in batches. A file that cannot be parsed or saved does not stop the others from
+     * being imported.
+     *
+     * @param session   jcr session to use
+     * @param files     files to import
+     * @param batchSize number of files to save at once, 0 or less to save all at once
+     * @param threads   number of threads to parse the files with, the repository is only updated from the calling
+     *                  thread
+     * @return what has been imported
+     */
+    GroovyFilesImportResult importGroovyFiles(Session session, Collection<File> files, int batchSize, int threads);
 }
\ No newline at end of file
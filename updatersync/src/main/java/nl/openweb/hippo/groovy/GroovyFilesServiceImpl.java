@@ -35,14 +35,23 @@
 package nl.openweb.hippo.groovy;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.Value;
 import javax.jcr.ValueFormatException;
+import javax.jcr.nodetype.NodeType;
 
 import org.apache.jackrabbit.value.BooleanValue;
 import org.apache.jackrabbit.value.LongValue;
@@ -52,22 +61,60 @@ import org.hippoecm.repository.util.JcrUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import nl.openweb.hippo.groovy.annotations.Updater;
 import nl.openweb.hippo.groovy.model.ScriptClass;
+import nl.openweb.hippo.groovy.model.ScriptHeader;
 import static nl.openweb.hippo.groovy.Generator.getGroovyFiles;
-import static nl.openweb.hippo.groovy.ScriptClassFactory.getInterpretingClass;
+import static nl.openweb.hippo.groovy.ScriptClassFactory.exceedsMaxLength;
+import static nl.openweb.hippo.groovy.ScriptClassFactory.readHeader;
 import static nl.openweb.hippo.groovy.model.Constants.NodeType.HIPPOSYS_UPDATERINFO;
 import static nl.openweb.hippo.groovy.model.Constants.PropertyName.HIPPOSYS_DESCRIPTION;
+import static nl.openweb.hippo.groovy.model.Constants.PropertyName.HIPPOSYS_LOGTARGET;
 import static nl.openweb.hippo.groovy.model.Constants.PropertyName.HIPPOSYS_PARAMETERS;
 import static nl.openweb.hippo.groovy.model.Constants.PropertyName.HIPPOSYS_PATH;
 import static nl.openweb.hippo.groovy.model.Constants.PropertyName.HIPPOSYS_QUERY;
 import static nl.openweb.hippo.groovy.model.Constants.PropertyName.JCR_MIXIN_TYPES;
 import static nl.openweb.hippo.groovy.model.Constants.PropertyName.JCR_PRIMARY_TYPE;
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.DEFAULT_IMPORT_BATCH_SIZE;
 import static nl.openweb.hippo.groovy.util.WatchFilesUtils.SCRIPT_ROOT;
 
 public class GroovyFilesServiceImpl implements GroovyFilesService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GroovyFilesServiceImpl.class);
+    private static final String[] OPTIONAL_PROPERTIES = {HIPPOSYS_DESCRIPTION, HIPPOSYS_LOGTARGET, HIPPOSYS_PARAMETERS,
+        HIPPOSYS_PATH, HIPPOSYS_QUERY};
+
+    private final long maxFileLengthBytes;
+    private final ScriptClassCache scriptClassCache = new ScriptClassCache();
+    /**
+     * The paths of the script nodes by the absolute path of their groovy file, read from the fingerprints stored on the
+     * nodes
+     */
+    private final Map<String, String> scriptNodePaths = new ConcurrentHashMap<>();
+    /**
+     * Imports write the script nodes one at a time, so the reconciliation and the watcher, each with a session of their
+     * own, do not write the same node at once
+     */
+    private final Object importLock = new Object();
+    private boolean scriptNodePathsRead;
+
+    public GroovyFilesServiceImpl() {
+        this(0);
+    }
+
+    /**
+     * @param maxFileLengthBytes the maximum size of groovy and parameters files to import, 0 or less for no maximum
+     */
+    public GroovyFilesServiceImpl(final long maxFileLengthBytes) {
+        this.maxFileLengthBytes = maxFileLengthBytes;
+    }
+
+    /**
+     * @return whether the header of the file shows it is an updater, without reading the rest of the file
+     */
+    private static boolean isUpdater(final File file, final long maxFileLength) {
+        final ScriptHeader header = readHeader(file, maxFileLength);
+        return header != null && header.isUpdater();
+    }
 
     private static void warnAndThrow(final String message, final Object... args) {
         throw new GroovyFileException(warn(message, args));
@@ -93,37 +140,126 @@ public class GroovyFilesServiceImpl implements GroovyFilesService {
      * @return success
      * @throws RepositoryException
      */
-    private static boolean setUpdateScriptJcrNode(Node parent, File file) throws RepositoryException {
-        ScriptClass scriptClass = getInterpretingClass(file, true);
-        if (scriptClass == null || !scriptClass.isValid()) {
+    private boolean setUpdateScriptJcrNode(Node parent, File file) throws RepositoryException {
+        final ParsedScript script = ParsedScript.parse(file, maxFileLengthBytes, scriptClassCache);
+        if (script.error != null || script.scriptClass == null || !script.scriptClass.isValid()) {
             return false;
         }
-        final Updater updater = scriptClass.getUpdater();
-        Node scriptNode = getScriptNode(parent, updater.name());
-        final Map<String, Object> properties = PropertyCollector.getPropertiesForUpdater(scriptClass, file.getParentFile());
+        setUpdateScriptJcrNode(parent, script);
+        return true;
+    }
+
+    /**
+     * Update or create the node of the script, only touching the properties that differ, and store the fingerprint of
+     * its files on it. This will not save the session.
+     *
+     * @param parent parentnode of the Node te be
+     * @param script script to transform into a Node, its node path is set
+     * @return whether the properties of the node have been changed
+     * @throws RepositoryException
+     */
+    private boolean setUpdateScriptJcrNode(Node parent, ParsedScript script) throws RepositoryException {
+        final ScriptClass scriptClass = script.scriptClass;
+        final String name = scriptClass.getUpdater().name();
+        final Map<String, Object> properties = PropertyCollector.getPropertiesForUpdater(scriptClass,
+            scriptClass.getFile().getParentFile(), maxFileLengthBytes);
+        final boolean exists = parent.hasNode(name);
+        final Node scriptNode = exists ? parent.getNode(name) : parent.addNode(name, HIPPOSYS_UPDATERINFO);
+        script.nodePath = scriptNode.getPath();
+        boolean changed = !exists;
         for (Map.Entry<String, Object> entry : properties.entrySet()) {
-            if (!JCR_PRIMARY_TYPE.equals(entry.getKey())) {
+            if (!JCR_PRIMARY_TYPE.equals(entry.getKey()) && !hasValue(scriptNode, entry)) {
                 scriptNode.setProperty(entry.getKey(), getValue(entry));
+                changed = true;
             }
         }
-        return true;
+        for (String optionalProperty : OPTIONAL_PROPERTIES) {
+            if (!properties.containsKey(optionalProperty) && scriptNode.hasProperty(optionalProperty)) {
+                scriptNode.getProperty(optionalProperty).remove();
+                changed = true;
+            }
+        }
+        if (exists && changed) {
+            info("Updating existing script %s", name);
+        } else if (exists) {
+            LOGGER.debug("Existing script {} is unchanged", name);
+        }
+        if (script.fingerprint != null) {
+            setFingerprint(scriptNode, script.fingerprint.toString());
+        }
+        return changed;
     }
 
-    private static Node getScriptNode(final Node parent, final String name) throws RepositoryException {
-        if (parent.hasNode(name)) {
-            info("Updating existing script %s", name);
-            final Node node = parent.getNode(name);
+    private static void setFingerprint(final Node scriptNode, final String fingerprint) throws RepositoryException {
+        if (scriptNode.hasProperty(ScriptFingerprint.PROPERTY)
+            && fingerprint.equals(scriptNode.getProperty(ScriptFingerprint.PROPERTY).getString())) {
+            return;
+        }
+        try {
+            scriptNode.addMixin(ScriptFingerprint.MIXIN);
+            scriptNode.setProperty(ScriptFingerprint.PROPERTY, fingerprint);
+        } catch (RepositoryException e) {
+            LOGGER.debug("Cannot store the fingerprint on {}, the script is compared entirely next time", scriptNode.getPath(), e);
+        }
+    }
 
-            String[] deleteProperties = new String[]{HIPPOSYS_DESCRIPTION, HIPPOSYS_PARAMETERS, HIPPOSYS_PATH, HIPPOSYS_QUERY};
+    /**
+     * Check the fingerprint stored on the node of a script against its files, without parsing the script
+     *
+     * @return whether the node has been written from the files as they are now
+     */
+    private boolean isUnchanged(final Session session, final File file) {
+        try {
+            if (!scriptNodePathsRead) {
+                readScriptNodePaths(getRegistryNode(session));
+                scriptNodePathsRead = true;
+            }
+            final String nodePath = scriptNodePaths.get(file.getAbsolutePath());
+            final Node scriptNode = nodePath == null ? null : JcrUtils.getNodeIfExists(nodePath, session);
+            if (scriptNode == null || !scriptNode.hasProperty(ScriptFingerprint.PROPERTY)) {
+                return false;
+            }
+            final ScriptFingerprint fingerprint = ScriptFingerprint.parse(scriptNode.getProperty(ScriptFingerprint.PROPERTY).getString());
+            return fingerprint != null && fingerprint.getScriptPath().equals(file.getAbsolutePath()) && fingerprint.matchesFiles();
+        } catch (RepositoryException | RuntimeException e) {
+            LOGGER.debug("Cannot check the fingerprint of {}", file.getAbsolutePath(), e);
+            return false;
+        }
+    }
 
-            for (String deleteProperty : deleteProperties) {
-                if (node.hasProperty(deleteProperty)) {
-                    node.getProperty(deleteProperty).remove();
+    /**
+     * Find the script nodes of the groovy files by the fingerprints stored on them, so they are known after a restart
+     */
+    private void readScriptNodePaths(final Node registry) throws RepositoryException {
+        for (NodeIterator nodes = registry.getNodes(); nodes.hasNext(); ) {
+            final Node scriptNode = nodes.nextNode();
+            if (scriptNode.hasProperty(ScriptFingerprint.PROPERTY)) {
+                final ScriptFingerprint fingerprint = ScriptFingerprint.parse(scriptNode.getProperty(ScriptFingerprint.PROPERTY).getString());
+                if (fingerprint != null) {
+                    scriptNodePaths.putIfAbsent(fingerprint.getScriptPath(), scriptNode.getPath());
                 }
             }
-            return node;
         }
-        return parent.addNode(name, HIPPOSYS_UPDATERINFO);
+    }
+
+    private static boolean hasValue(final Node node, final Map.Entry<String, Object> entry) throws RepositoryException {
+        if (JCR_MIXIN_TYPES.equals(entry.getKey())) {
+            final Set<String> mixins = new HashSet<>();
+            for (NodeType mixin : node.getMixinNodeTypes()) {
+                mixins.add(mixin.getName());
+            }
+            if (!((Collection<?>) entry.getValue()).contains(ScriptFingerprint.MIXIN)) {
+                // added for the fingerprint
+                mixins.remove(ScriptFingerprint.MIXIN);
+            }
+            return mixins.equals(new HashSet<>((Collection<?>) entry.getValue()));
+        }
+        if (!node.hasProperty(entry.getKey())) {
+            return false;
+        }
+        final Property property = node.getProperty(entry.getKey());
+        final Value value = getValue(entry);
+        return !property.isMultiple() && property.getType() == value.getType() && property.getString().equals(value.getString());
     }
 
     private static Value getValue(final Map.Entry<String, Object> entry) throws ValueFormatException {
@@ -137,6 +273,10 @@ public class GroovyFilesServiceImpl implements GroovyFilesService {
         return new StringValue(entry.getValue().toString());
     }
 
+    private static String getTooLargeMessage(final File file, final long maxFileLength) {
+        return String.format("%s has %d bytes, the maximum is %d bytes", file.getName(), file.length(), maxFileLength);
+    }
+
     private Node getRegistryNode(Session session) throws RepositoryException {
         final Node scriptRegistry = JcrUtils.getNodeIfExists(SCRIPT_ROOT, session);
         if (scriptRegistry == null) {
@@ -146,9 +286,135 @@ public class GroovyFilesServiceImpl implements GroovyFilesService {
     }
 
     public void importGroovyFiles(Session session, File file) {
-        List<File> groovyFiles = getGroovyFiles(file);
-        for (File groovyFile : groovyFiles) {
-            importGroovyFiles(session, groovyFile);
+        final GroovyFilesImportResult result = importGroovyFiles(session, getGroovyFiles(file), DEFAULT_IMPORT_BATCH_SIZE.intValue(), 1);
+        info("Imported groovy files from %s: %s", file.getAbsolutePath(), result);
+    }
+
+    @Override
+    public GroovyFilesImportResult importGroovyFiles(final Session session, final Collection<File> files, final int batchSize,
+                                                     final int threads) {
+        final GroovyFilesImportResult result = new GroovyFilesImportResult();
+        final List<File> fileList = new ArrayList<>(files);
+        final int size = batchSize > 0 ? batchSize : Math.max(1, fileList.size());
+        for (int start = 0; start < fileList.size(); start += size) {
+            importBatch(session, fileList.subList(start, Math.min(start + size, fileList.size())), threads, result);
+        }
+        return result;
+    }
+
+    /**
+     * Import a batch of groovy files. Only the files that do not match the fingerprint stored on their node are parsed.
+     */
+    private void importBatch(final Session session, final List<File> batch, final int threads, final GroovyFilesImportResult result) {
+        final List<File> changed = new ArrayList<>(batch.size());
+        synchronized (importLock) {
+            for (File file : batch) {
+                if (isUnchanged(session, file)) {
+                    LOGGER.debug("Script file {} is unchanged", file.getAbsolutePath());
+                    result.addUnchanged(file);
+                } else {
+                    changed.add(file);
+                }
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        final List<ParsedScript> scripts = ParallelUtils.map(changed, file -> ParsedScript.parse(file, maxFileLengthBytes, scriptClassCache), threads);
+        synchronized (importLock) {
+            applyBatch(session, changed, scripts, result);
+        }
+    }
+
+    /**
+     * Write the nodes of the parsed scripts of a batch, saving them at once or else one by one
+     */
+    private void applyBatch(final Session session, final List<File> batch, final List<ParsedScript> scripts,
+                            final GroovyFilesImportResult result) {
+        final Node registry;
+        try {
+            registry = getRegistryNode(session);
+        } catch (RepositoryException e) {
+            batch.forEach(file -> result.addFailed(file, e.toString()));
+            return;
+        }
+        final List<ParsedScript> applied = new ArrayList<>(scripts.size());
+        boolean clean = true;
+        for (ParsedScript script : scripts) {
+            if (script.error != null) {
+                result.addFailed(script.file, script.error);
+            } else if (script.scriptClass == null || !script.scriptClass.isValid()) {
+                result.addSkipped(script.file);
+            } else if (applyScript(registry, script, result)) {
+                applied.add(script);
+            } else {
+                clean = false;
+            }
+        }
+        if (clean && (applied.isEmpty() || trySave(session, result))) {
+            applied.forEach(script -> addApplied(script, result));
+            return;
+        }
+        refreshQuietly(session);
+        if (!applied.isEmpty()) {
+            info("Saving %d groovy files at once failed, importing them one by one", applied.size());
+        }
+        for (ParsedScript script : applied) {
+            if (!applyScript(registry, script, result)) {
+                refreshQuietly(session);
+            } else if (trySave(session, result)) {
+                addApplied(script, result);
+            } else {
+                result.addFailed(script.file, "Saving the script node failed");
+                refreshQuietly(session);
+            }
+        }
+    }
+
+    /**
+     * Register a script of which the node has been saved, remembering its node for the next import
+     */
+    private void addApplied(final ParsedScript script, final GroovyFilesImportResult result) {
+        if (script.fingerprint != null) {
+            scriptNodePaths.put(script.file.getAbsolutePath(), script.nodePath);
+        }
+        if (script.changed) {
+            result.addImported(script.file);
+        } else {
+            result.addUnchanged(script.file);
+        }
+    }
+
+    private boolean applyScript(final Node registry, final ParsedScript script, final GroovyFilesImportResult result) {
+        try {
+            script.changed = setUpdateScriptJcrNode(registry, script);
+            return true;
+        } catch (RepositoryException | RuntimeException e) {
+            warn("Failed to update script node for %s: %s", script.file.getAbsolutePath(), e);
+            result.addFailed(script.file, e.toString());
+            return false;
+        }
+    }
+
+    private static boolean trySave(final Session session, final GroovyFilesImportResult result) {
+        try {
+            if (!session.hasPendingChanges()) {
+                return true;
+            }
+            session.save();
+            result.addSave();
+            return true;
+        } catch (RepositoryException e) {
+            warn("Failed to save groovy files: %s", e);
+            return false;
+        }
+    }
+
+    private static void refreshQuietly(final Session session) {
+        try {
+            session.refresh(false);
+        } catch (RepositoryException e) {
+            LOGGER.debug("Ignoring that session.refresh(false) failed", e);
         }
     }
 
@@ -161,6 +427,74 @@ public class GroovyFilesServiceImpl implements GroovyFilesService {
      * @throws RepositoryException
      */
     public boolean importGroovyFile(Session session, File file) throws RepositoryException {
-        return setUpdateScriptJcrNode(getRegistryNode(session), file);
+        synchronized (importLock) {
+            return setUpdateScriptJcrNode(getRegistryNode(session), file);
+        }
+    }
+
+    private static class ParsedScript {
+        private final File file;
+        private final ScriptClass scriptClass;
+        private final String error;
+        private final ScriptFingerprint fingerprint;
+        private boolean changed;
+        private String nodePath;
+
+        private ParsedScript(final File file, final ScriptClass scriptClass, final String error) {
+            this(file, scriptClass, error, null);
+        }
+
+        private ParsedScript(final File file, final ScriptClass scriptClass, final String error, final ScriptFingerprint fingerprint) {
+            this.file = file;
+            this.scriptClass = scriptClass;
+            this.error = error;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Parse a script, checking the size of the script and its parameters file before reading them. An unchanged
+         * script is taken from the cache without reading it, and a script that is no updater is only read up to its
+         * class declaration. The fingerprint of the files is taken before they are read, so a change while reading
+         * shows on the next import.
+         */
+        private static ParsedScript parse(final File file, final long maxFileLength, final ScriptClassCache cache) {
+            if (exceedsMaxLength(file, maxFileLength)) {
+                return new ParsedScript(file, null, warn("Skipping %s: %s", file.getAbsolutePath(), getTooLargeMessage(file, maxFileLength)));
+            }
+            try {
+                if (!cache.isCached(file, true, ScriptClassFactory.InterpretMode.COMPILE) && !isUpdater(file, maxFileLength)) {
+                    return new ParsedScript(file, null, null);
+                }
+                ScriptFingerprint fingerprint = getFingerprintOrNull(file, null);
+                final ScriptClass scriptClass = cache.getInterpretingClass(file, true, ScriptClassFactory.InterpretMode.COMPILE, maxFileLength);
+                if (scriptClass != null && scriptClass.isValid()) {
+                    final File parametersFile = PropertyCollector.getParametersFile(scriptClass, file.getParentFile());
+                    if (parametersFile != null && exceedsMaxLength(parametersFile, maxFileLength)) {
+                        return new ParsedScript(file, null, warn("Skipping %s: %s", file.getAbsolutePath(),
+                            getTooLargeMessage(parametersFile, maxFileLength)));
+                    }
+                    if (parametersFile != null && fingerprint != null) {
+                        fingerprint = getFingerprintOrNull(parametersFile, fingerprint);
+                    }
+                }
+                return new ParsedScript(file, scriptClass, null, fingerprint);
+            } catch (RuntimeException e) {
+                warn("Failed to parse %s: %s", file.getAbsolutePath(), e);
+                return new ParsedScript(file, null, e.toString());
+            }
+        }
+
+        /**
+         * @return the fingerprint of the script, or of the script including the file when a fingerprint is given, or
+         * null when the file cannot be read so no fingerprint is stored
+         */
+        private static ScriptFingerprint getFingerprintOrNull(final File file, final ScriptFingerprint fingerprint) {
+            try {
+                return fingerprint == null ? ScriptFingerprint.of(file) : fingerprint.with(file);
+            } catch (IOException e) {
+                LOGGER.debug("Cannot take the fingerprint of {}", file.getAbsolutePath(), e);
+                return null;
+            }
+        }
     }
 }
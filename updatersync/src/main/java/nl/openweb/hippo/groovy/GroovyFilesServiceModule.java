@@ -78,7 +78,7 @@ public class GroovyFilesServiceModule extends AbstractReconfigurableDaemonModule
     @Override
     protected void doInitialize(final Session session) {
         LOGGER.debug("Starting Service for checking Groovy");
-        service = new GroovyFilesServiceImpl();
+        service = new GroovyFilesServiceImpl(config.getMaxFileLengthBytes());
         HippoServiceRegistry.registerService(service, GroovyFilesService.class);
 
         watcher = new GroovyFilesWatcher(config, service, session);
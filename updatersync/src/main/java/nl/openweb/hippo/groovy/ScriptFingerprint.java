@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The files an updater script node has been written from: the script and its parameters file, with their size,
+ * modification time and content hash. It is stored on the script node, so a script of which the files did not change
+ * is recognized without parsing it, also after a restart.
+ */
+final class ScriptFingerprint {
+
+    /**
+     * Name of the property holding the fingerprint, allowed on the script node by the {@link #MIXIN}
+     */
+    static final String PROPERTY = "groovyFilesFingerprint";
+    /**
+     * Existing mixin with residual properties
+     */
+    static final String MIXIN = "hippostd:relaxed";
+
+    private final List<FileStamp> files;
+
+    private ScriptFingerprint(final List<FileStamp> files) {
+        this.files = Collections.unmodifiableList(files);
+    }
+
+    /**
+     * @param script the groovy file, to be stamped before it is read
+     * @return the fingerprint of the script
+     * @throws IOException when the file cannot be read
+     */
+    static ScriptFingerprint of(final File script) throws IOException {
+        return new ScriptFingerprint(Collections.singletonList(FileStamp.of(script)));
+    }
+
+    /**
+     * @param file a file the script node is written from as well, to be stamped before it is read
+     * @return the fingerprint including the file
+     * @throws IOException when the file cannot be read
+     */
+    ScriptFingerprint with(final File file) throws IOException {
+        final List<FileStamp> stamps = new ArrayList<>(files);
+        stamps.add(FileStamp.of(file));
+        return new ScriptFingerprint(stamps);
+    }
+
+    /**
+     * @return the absolute path of the groovy file
+     */
+    String getScriptPath() {
+        return files.get(0).path;
+    }
+
+    /**
+     * @return whether none of the files changed: their size and modification time are the same, or else their content
+     */
+    boolean matchesFiles() {
+        for (FileStamp stamp : files) {
+            if (!stamp.matchesFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value the stored fingerprint
+     * @return the fingerprint, or null when the value is no fingerprint
+     */
+    static ScriptFingerprint parse(final String value) {
+        final List<FileStamp> stamps = new ArrayList<>();
+        for (String line : value.split("\n")) {
+            final FileStamp stamp = FileStamp.parse(line);
+            if (stamp == null) {
+                return null;
+            }
+            stamps.add(stamp);
+        }
+        return new ScriptFingerprint(stamps);
+    }
+
+    /**
+     * @return a line per file: its size, modification time, content hash and path
+     */
+    @Override
+    public String toString() {
+        final StringBuilder value = new StringBuilder();
+        for (FileStamp stamp : files) {
+            if (value.length() > 0) {
+                value.append('\n');
+            }
+            value.append(stamp.size).append(' ').append(stamp.lastModified).append(' ').append(stamp.hash).append(' ')
+                .append(stamp.path);
+        }
+        return value.toString();
+    }
+
+    private static final class FileStamp {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        private FileStamp(final String path, final long size, final long lastModified, final String hash) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        private static FileStamp of(final File file) throws IOException {
+            final long size = file.length();
+            final long lastModified = file.lastModified();
+            return new FileStamp(file.getAbsolutePath(), size, lastModified, HashUtils.sha256(file));
+        }
+
+        private static FileStamp parse(final String line) {
+            final String[] parts = line.split(" ", 4);
+            if (parts.length < 4) {
+                return null;
+            }
+            try {
+                return new FileStamp(parts[3], Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private boolean matchesFile() {
+            final File file = new File(path);
+            if (!file.isFile() || file.length() != size) {
+                return false;
+            }
+            if (file.lastModified() == lastModified) {
+                return true;
+            }
+            try {
+                return hash.equals(HashUtils.sha256(file));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
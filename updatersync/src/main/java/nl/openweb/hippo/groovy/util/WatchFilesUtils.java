@@ -58,6 +58,10 @@ public class WatchFilesUtils {
     public static final String[] DEFAULT_WATCHED_MODULES = {};
     public static final Long DEFAULT_WATCH_DELAY_MILLIS = 500L;
     public static final Long DEFAULT_MAX_FILE_LENGTH_KB = 256L;
+    public static final Long DEFAULT_IMPORT_BATCH_SIZE = 100L;
+    public static final Long DEFAULT_IMPORT_THREADS = 1L;
+    public static final Long DEFAULT_DEBOUNCE_QUIET_MILLIS = 300L;
+    public static final Long DEFAULT_DEBOUNCE_MAX_LATENCY_MILLIS = 3000L;
     private static final Logger LOGGER = LoggerFactory.getLogger(WatchFilesUtils.class);
 
     private WatchFilesUtils() {
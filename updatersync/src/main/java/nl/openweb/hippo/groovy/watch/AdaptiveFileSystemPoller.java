@@ -0,0 +1,301 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * File system observer that polls for changes, for file systems where no {@link java.nio.file.WatchService} can be
+ * used. It keeps the cost of a poll low on large directories:
+ * <ul>
+ * <li>only files matching the {@link GlobFileNameMatcher} are tracked and checked for changes,</li>
+ * <li>a directory is only listed again when its modification time changed,</li>
+ * <li>the polling delay starts at the configured delay after a change, and doubles on every poll without changes
+ * up to {@value #MAX_BACKOFF_FACTOR} times the configured delay.</li>
+ * </ul>
+ */
+public class AdaptiveFileSystemPoller implements FileSystemObserver {
+
+    static final int MAX_BACKOFF_FACTOR = 8;
+    /**
+     * Directories modified this shortly before they were listed are listed again on the next poll, since a file
+     * system with a coarse modification time resolution would not show a second change within the same period.
+     */
+    private static final long MODIFICATION_TIME_RESOLUTION_MILLIS = 2000;
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveFileSystemPoller.class);
+
+    private final GlobFileNameMatcher watchedFiles;
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+    private final Map<Path, FileSystemListener> listeners;
+    private final Map<Path, DirectoryState> scannedRoots;
+    private final ScheduledExecutorService scheduler;
+    private long delayMillis;
+
+    public AdaptiveFileSystemPoller(final GlobFileNameMatcher watchedFiles, final long pollingDelayMillis) {
+        this.watchedFiles = watchedFiles;
+        this.minDelayMillis = Math.max(1, pollingDelayMillis);
+        this.maxDelayMillis = minDelayMillis * MAX_BACKOFF_FACTOR;
+        this.delayMillis = minDelayMillis;
+        listeners = new LinkedHashMap<>();
+        scannedRoots = new LinkedHashMap<>();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "FileSystemPoller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void registerDirectory(final Path directory, final FileSystemListener listener) throws IOException {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Registering {}", directory);
+        }
+        listeners.put(directory, listener);
+        for (Path root : scannedRoots.keySet()) {
+            if (directory.startsWith(root) && listeners.get(root) == listener) {
+                // already scanned as part of the root
+                return;
+            }
+        }
+        scannedRoots.keySet().removeIf(root -> root.startsWith(directory) && listeners.get(root) == listener);
+        // read the registered directory before observing changes, so the first poll does not report every file
+        scannedRoots.put(directory, readDirectory(directory));
+    }
+
+    @Override
+    public synchronized List<Path> getObservedRootDirectories() {
+        return new ArrayList<>(listeners.keySet());
+    }
+
+    private void poll() {
+        boolean changed = false;
+        try {
+            changed = pollOnce();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Exception while polling for changes: {}", e, e);
+        }
+        delayMillis = changed ? minDelayMillis : Math.min(delayMillis * 2, maxDelayMillis);
+        try {
+            scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Polling stopped");
+        }
+    }
+
+    /**
+     * Check all registered directories for changes once, and report them to the listeners. The listeners are called
+     * after the directories have been checked, so registering a directory does not wait for them.
+     *
+     * @return whether any change was found
+     */
+    boolean pollOnce() {
+        final Map<FileSystemListener, Changes> changes = new LinkedHashMap<>();
+        synchronized (this) {
+            for (Map.Entry<Path, DirectoryState> root : scannedRoots.entrySet()) {
+                final FileSystemListener listener = listeners.get(root.getKey());
+                scanDirectory(root.getKey(), root.getValue(), changes.computeIfAbsent(listener, Changes::new));
+            }
+        }
+        boolean changed = false;
+        for (Changes listenerChanges : changes.values()) {
+            changed |= listenerChanges.notifyListener();
+        }
+        return changed;
+    }
+
+    private DirectoryState readDirectory(final Path directory) throws IOException {
+        final DirectoryState state = listDirectory(directory);
+        for (Map.Entry<Path, DirectoryState> subDirectory : state.directories.entrySet()) {
+            subDirectory.setValue(readDirectory(subDirectory.getKey()));
+        }
+        return state;
+    }
+
+    /**
+     * Read the matching files and directories of a directory, without reading the sub-directories
+     */
+    private DirectoryState listDirectory(final Path directory) throws IOException {
+        final DirectoryState state = new DirectoryState();
+        state.listed = System.currentTimeMillis();
+        state.lastModified = Files.readAttributes(directory, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                final BasicFileAttributes attributes = readAttributesOrNull(entry);
+                if (attributes == null) {
+                    continue;
+                }
+                if (attributes.isDirectory()) {
+                    if (watchedFiles.matchesDirectory(entry)) {
+                        state.directories.put(entry, null);
+                    }
+                } else if (attributes.isRegularFile() && watchedFiles.matchesFile(entry)) {
+                    state.files.put(entry, new FileState(attributes));
+                }
+            }
+        }
+        return state;
+    }
+
+    private void scanDirectory(final Path directory, final DirectoryState state, final Changes changes) {
+        final BasicFileAttributes attributes = readAttributesOrNull(directory);
+        if (attributes == null) {
+            // the parent directory reports the deletion
+            return;
+        }
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        if (lastModified != state.lastModified || lastModified >= state.listed - MODIFICATION_TIME_RESOLUTION_MILLIS) {
+            relistDirectory(directory, state, changes);
+        }
+        final Iterator<Map.Entry<Path, FileState>> files = state.files.entrySet().iterator();
+        while (files.hasNext()) {
+            final Map.Entry<Path, FileState> file = files.next();
+            final BasicFileAttributes fileAttributes = readAttributesOrNull(file.getKey());
+            if (fileAttributes == null) {
+                files.remove();
+                changes.report(listener -> listener.fileDeleted(file.getKey()));
+            } else if (!file.getValue().matches(fileAttributes)) {
+                file.setValue(new FileState(fileAttributes));
+                changes.report(listener -> listener.fileModified(file.getKey()));
+            }
+        }
+        state.directories.forEach((subDirectory, subState) -> scanDirectory(subDirectory, subState, changes));
+    }
+
+    private void relistDirectory(final Path directory, final DirectoryState state, final Changes changes) {
+        final DirectoryState current;
+        try {
+            current = listDirectory(directory);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot list directory {}", directory, e);
+            return;
+        }
+        state.lastModified = current.lastModified;
+        state.listed = current.listed;
+        for (Path file : new HashSet<>(state.files.keySet())) {
+            if (!current.files.containsKey(file)) {
+                state.files.remove(file);
+                changes.report(listener -> listener.fileDeleted(file));
+            }
+        }
+        current.files.forEach((file, fileState) -> {
+            if (state.files.putIfAbsent(file, fileState) == null) {
+                changes.report(listener -> listener.fileCreated(file));
+            }
+        });
+        for (Path subDirectory : new HashSet<>(state.directories.keySet())) {
+            if (!current.directories.containsKey(subDirectory)) {
+                state.directories.remove(subDirectory);
+                changes.report(listener -> listener.directoryDeleted(subDirectory));
+            }
+        }
+        for (Path subDirectory : current.directories.keySet()) {
+            if (!state.directories.containsKey(subDirectory)) {
+                try {
+                    state.directories.put(subDirectory, readDirectory(subDirectory));
+                    changes.report(listener -> listener.directoryCreated(subDirectory));
+                } catch (IOException e) {
+                    LOGGER.debug("Cannot read created directory {}", subDirectory, e);
+                }
+            }
+        }
+    }
+
+    private static BasicFileAttributes readAttributesOrNull(final Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.debug("Cannot read attributes of {}", path, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Collects the changes for one listener, to report them as one set of changes when there is something to report
+     */
+    private static class Changes {
+
+        private final FileSystemListener listener;
+        private final List<Consumer<FileSystemListener>> changes = new ArrayList<>();
+
+        Changes(final FileSystemListener listener) {
+            this.listener = listener;
+        }
+
+        void report(final Consumer<FileSystemListener> change) {
+            changes.add(change);
+        }
+
+        boolean notifyListener() {
+            if (changes.isEmpty()) {
+                return false;
+            }
+            listener.fileSystemChangesStarted();
+            changes.forEach(change -> change.accept(listener));
+            listener.fileSystemChangesStopped();
+            return true;
+        }
+    }
+
+    private static class DirectoryState {
+        private final Map<Path, FileState> files = new HashMap<>();
+        private final Map<Path, DirectoryState> directories = new HashMap<>();
+        private long lastModified;
+        private long listed;
+    }
+
+    private static class FileState {
+        private final long size;
+        private final long lastModified;
+
+        FileState(final BasicFileAttributes attributes) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+
+        boolean matches(final BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+}
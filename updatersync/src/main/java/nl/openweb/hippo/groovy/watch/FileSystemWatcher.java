@@ -18,8 +18,6 @@
 package nl.openweb.hippo.groovy.watch;
 
 import java.io.IOException;
-import java.nio.file.ClosedWatchServiceException;
-import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -30,30 +28,26 @@ import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
-
 /**
- * File system observer that uses a {@link WatchService} to get notified about changes.
+ * File system observer that uses a {@link WatchService} to get notified about changes. All instances share the watch
+ * service and thread of the {@link WatchServiceDispatcher}, each instance notifies its listeners on a thread of its
+ * own.
  */
-public class FileSystemWatcher implements FileSystemObserver, Runnable {
+public class FileSystemWatcher implements FileSystemObserver {
 
-    static final int POLLING_TIME_MILLIS = 100;
     private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemWatcher.class);
-    private static final Thread.UncaughtExceptionHandler UNCAUGHT_EXCEPTION_HANDLER =
-        (exceptionThread, exception) -> LOGGER.warn("FileSystemWatcher '{}' crashed", exceptionThread.getName(), exception);
-    private static int instanceCounter = 0;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
     /**
      * The {@link WatchService} used by this class has a percularity: when a directory is moved, the associated watch
      * key's watchable() still returns the old path. This map is therefore used to keep track of which watch key
@@ -61,28 +55,33 @@ public class FileSystemWatcher implements FileSystemObserver, Runnable {
      */
     final Map<WatchKey, Path> watchedPaths;
     private final GlobFileNameMatcher watchedFiles;
-    private final Map<Path, ChangesProcessor> changesProcessors;
-    private final WatchService watcher;
-    private final Thread fileSystemWatcherThread;
+    private final Map<Path, ChangesProcessor> rootDirectories;
+    private final Map<FileSystemListener, ChangesProcessor> changesProcessors;
+    private final PathTrie<ChangesProcessor> changesProcessorLookup;
+    private final WatchServiceDispatcher dispatcher;
+    private final ExecutorService listenerExecutor;
+    private boolean closed;
 
     public FileSystemWatcher(final GlobFileNameMatcher watchedFiles) throws IOException {
         this.watchedFiles = watchedFiles;
-        this.changesProcessors = new HashMap<>();
-
-        watcher = FileSystems.getDefault().newWatchService();
-        watchedPaths = new WeakHashMap<>();
-
-        fileSystemWatcherThread = new Thread(this);
-        fileSystemWatcherThread.setName("FileSystemWatcher-" + instanceCounter);
-        instanceCounter++;
-        fileSystemWatcherThread.setUncaughtExceptionHandler(UNCAUGHT_EXCEPTION_HANDLER);
-        fileSystemWatcherThread.start();
+        this.rootDirectories = new ConcurrentHashMap<>();
+        this.changesProcessors = new ConcurrentHashMap<>();
+        this.changesProcessorLookup = new PathTrie<>();
+        this.watchedPaths = new ConcurrentHashMap<>();
+        this.listenerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "FileSystemWatcher-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = WatchServiceDispatcher.acquire();
     }
 
     @Override
     public void registerDirectory(final Path directory, final FileSystemListener listener) throws IOException {
         if (watchedFiles.matchesDirectory(directory)) {
-            changesProcessors.put(directory, new ChangesProcessor(listener));
+            final ChangesProcessor processor = changesProcessors.computeIfAbsent(listener, ChangesProcessor::new);
+            rootDirectories.put(directory, processor);
+            changesProcessorLookup.put(directory, processor);
             registerRecursively(directory);
         } else {
             LOGGER.debug("Do not observe ignored directory {}", directory);
@@ -91,7 +90,7 @@ public class FileSystemWatcher implements FileSystemObserver, Runnable {
 
     @Override
     public List<Path> getObservedRootDirectories() {
-        return new ArrayList<>(changesProcessors.keySet());
+        return new ArrayList<>(rootDirectories.keySet());
     }
 
     private void registerRecursively(final Path directory) throws IOException {
@@ -102,89 +101,83 @@ public class FileSystemWatcher implements FileSystemObserver, Runnable {
                     return FileVisitResult.SKIP_SUBTREE;
                 }
 
-                final WatchKey key = visitedDirectory.register(watcher,
-                    ENTRY_CREATE,
-                    ENTRY_MODIFY,
-                    ENTRY_DELETE);
-
-                watchedPaths.put(key, visitedDirectory);
+                dispatcher.register(visitedDirectory, FileSystemWatcher.this);
 
                 return FileVisitResult.CONTINUE;
             }
         });
     }
 
-    @Override
-    public void run() {
-        try {
-            LOGGER.info("Watch started, polling every {} ms", POLLING_TIME_MILLIS);
-            while (fileSystemWatcherThread.isAlive()) {
-                processChanges();
-            }
-        } catch (ClosedWatchServiceException e) {
-            LOGGER.info("Watch closed", e);
-        } finally {
-            IOUtils.closeQuietly(watcher);
-        }
+    /**
+     * Called by the dispatcher while it registers a directory, before the events of the key can be processed
+     */
+    void watchKeyRegistered(final WatchKey key, final Path directory) {
+        watchedPaths.put(key, directory);
     }
 
-    private void processChanges() {
+    /**
+     * Hand the signalled watch keys of this watcher over to its listener thread, called by the dispatcher thread. The
+     * keys are not signalled again before they have been processed.
+     *
+     * @param keys the signalled watch keys that were registered by this watcher
+     */
+    void dispatchWatchKeys(final List<WatchKey> keys) {
         try {
-            LOGGER.info("Waiting for changes... {}", fileSystemWatcherThread.isAlive() ? "YES" : "NO");
-            watchChange();
-            pollForMoreChanges();
-            stopProcessingChanges();
-        } catch (ClosedWatchServiceException e) {
-            throw e;
-        } catch (Exception e) {
-            LOGGER.warn("Exception while processing watch keys: {}", e, e);
+            listenerExecutor.execute(() -> {
+                try {
+                    processWatchKeys(keys);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Exception while processing watch keys: {}", e, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Ignoring watch keys of a watcher that has been shut down");
         }
     }
 
-    private void watchChange() throws InterruptedException {
-        final WatchKey key = watcher.take();
-        LOGGER.debug("Change found for '{}'", key.watchable());
-        processWatchKey(key);
-    }
-
     /**
-     * Keep polling for a short time: when (multiple) directories get deleted the watch keys might arrive just a bit
-     * later
+     * Process the signalled watch keys of this watcher
+     *
+     * @param keys the signalled watch keys that were registered by this watcher
      */
-    private void pollForMoreChanges() throws InterruptedException {
-        boolean keepPolling = true;
-        List<WatchKey> polledKeys = new ArrayList<>();
-        final long startPolling = System.currentTimeMillis();
-        while (keepPolling) {
-            LOGGER.debug("Waiting {} ms for more changes...", POLLING_TIME_MILLIS);
-            WatchKey key = watcher.poll(POLLING_TIME_MILLIS, TimeUnit.MILLISECONDS);
-            if (key == null) {
-                keepPolling = false;
-            } else {
-                LOGGER.debug("Found change for '{}' found during extra polling time", key.watchable());
-                polledKeys.add(key);
-            }
-        }
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Polled '{}' more changes during '{}' ms", polledKeys.size(), System.currentTimeMillis() - startPolling);
+    synchronized void processWatchKeys(final List<WatchKey> keys) {
+        if (closed) {
+            return;
         }
-        for (WatchKey polledKey : polledKeys) {
-            processWatchKey(polledKey);
+        final List<WatchKey> invalidKeys = new ArrayList<>();
+        try {
+            for (WatchKey key : keys) {
+                if (!processWatchKey(key)) {
+                    invalidKeys.add(key);
+                }
+            }
+        } finally {
+            stopProcessingChanges();
+            for (WatchKey invalidKey : invalidKeys) {
+                watchedPaths.remove(invalidKey);
+                dispatcher.unregister(invalidKey);
+            }
         }
     }
 
-    private void processWatchKey(final WatchKey key) {
+    /**
+     * @return whether the key is still valid
+     */
+    private boolean processWatchKey(final WatchKey key) {
+        final boolean valid;
         try {
             final Path watchedDirectory = watchedPaths.get(key);
             if (watchedDirectory == null) {
                 LOGGER.warn("Ignoring watch event for unknown directory: {}", key.watchable());
+                key.pollEvents();
             } else {
                 LOGGER.debug("Processing watch key for '{}'", watchedDirectory);
                 processFileSystemChanges(watchedDirectory, key);
             }
         } finally {
-            key.reset();
+            valid = key.reset();
         }
+        return valid;
     }
 
     private void processFileSystemChanges(final Path watchedDirectory, final WatchKey key) {
@@ -241,13 +234,7 @@ public class FileSystemWatcher implements FileSystemObserver, Runnable {
     }
 
     private ChangesProcessor getChangesProcessorOrNull(final Path watchedDirectory) {
-        for (Map.Entry<Path, ChangesProcessor> entry : changesProcessors.entrySet()) {
-            final Path watchedRootDirectory = entry.getKey();
-            if (watchedDirectory.startsWith(watchedRootDirectory)) {
-                return entry.getValue();
-            }
-        }
-        return null;
+        return changesProcessorLookup.getLongestPrefix(watchedDirectory);
     }
 
     private void stopProcessingChanges() {
@@ -265,16 +252,27 @@ public class FileSystemWatcher implements FileSystemObserver, Runnable {
     }
 
     @Override
-    public synchronized void shutdown() {
+    public void shutdown() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (WatchKey key : watchedPaths.keySet()) {
+                dispatcher.unregister(key);
+            }
+            watchedPaths.clear();
+        }
+        // outside the lock: the listener thread and releasing the last reference wait for threads
+        listenerExecutor.shutdown();
         try {
-            watcher.close();
-            fileSystemWatcherThread.join();
+            if (!listenerExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("FileSystemWatcher listener did not stop within {} ms", SHUTDOWN_TIMEOUT_MILLIS);
+            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-        } catch (IOException e) {
-            // ignore, but don't wait for the thread
-            LOGGER.debug("Ignoring exception while closing watcher", e);
         }
+        WatchServiceDispatcher.release(dispatcher);
     }
 
     private static class ChangesProcessor {
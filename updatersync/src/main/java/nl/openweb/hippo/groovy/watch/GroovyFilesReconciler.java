@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import nl.openweb.hippo.groovy.GroovyFileWalker;
+import nl.openweb.hippo.groovy.GroovyFilesImportResult;
+import nl.openweb.hippo.groovy.GroovyFilesService;
+
+/**
+ * Brings the updater scripts in the repository in line with the groovy files on disk, to pick up the changes that
+ * were made while the repository was not running. Scripts that did not change since their last import are not
+ * written again. The scripts found are added to the dependency index of the watcher on the way.
+ */
+class GroovyFilesReconciler implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroovyFilesReconciler.class);
+
+    private final GroovyFilesWatcherConfig config;
+    private final GroovyFilesService service;
+    private final Session session;
+    private final List<Path> directories;
+    private final ScriptDependencyIndex dependencyIndex;
+
+    GroovyFilesReconciler(final GroovyFilesWatcherConfig config, final GroovyFilesService service,
+                          final Session session, final List<Path> directories, final ScriptDependencyIndex dependencyIndex) {
+        this.config = config;
+        this.service = service;
+        this.session = session;
+        this.directories = directories;
+        this.dependencyIndex = dependencyIndex;
+    }
+
+    /**
+     * Reconcile using a session of its own, so the watcher can keep using the module session meanwhile.
+     */
+    @Override
+    public void run() {
+        Session reconcileSession = null;
+        try {
+            reconcileSession = session.impersonate(new SimpleCredentials(session.getUserID(), new char[]{}));
+            reconcile(reconcileSession);
+        } catch (RepositoryException e) {
+            LOGGER.error("Failed to reconcile groovy files", e);
+        } finally {
+            if (reconcileSession != null) {
+                reconcileSession.logout();
+            }
+        }
+    }
+
+    /**
+     * Import the groovy files batch by batch, stopping between batches when the thread is interrupted
+     */
+    GroovyFilesImportResult reconcile(final Session reconcileSession) {
+        final long startTime = System.currentTimeMillis();
+        final List<File> scriptFiles = new ArrayList<>();
+        for (Path directory : directories) {
+            if (Thread.currentThread().isInterrupted()) {
+                LOGGER.info("Reconciling groovy files is interrupted");
+                return new GroovyFilesImportResult();
+            }
+            for (Path path : GroovyFileWalker.walk(directory)) {
+                dependencyIndex.update(path);
+                scriptFiles.add(path.toFile());
+            }
+        }
+        final GroovyFilesImportResult result = new GroovyFilesImportResult();
+        final int batchSize = config.getImportBatchSize() > 0 ? config.getImportBatchSize() : Math.max(1, scriptFiles.size());
+        for (int start = 0; start < scriptFiles.size(); start += batchSize) {
+            if (Thread.currentThread().isInterrupted()) {
+                LOGGER.info("Reconciling groovy files is interrupted after {} of {} files", start, scriptFiles.size());
+                break;
+            }
+            result.addAll(service.importGroovyFiles(reconcileSession,
+                scriptFiles.subList(start, Math.min(start + batchSize, scriptFiles.size())), batchSize, config.getImportThreads()));
+        }
+        result.getFailed().forEach((file, reason) ->
+            LOGGER.info("** Failed to reconcile '{}' as a groovy updater: {}", file, reason));
+        LOGGER.info("Reconciled {} groovy files in {} ms: {}", scriptFiles.size(),
+            System.currentTimeMillis() - startTime, result);
+        return result;
+    }
+}
@@ -19,23 +19,26 @@ package nl.openweb.hippo.groovy.watch;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import nl.openweb.hippo.groovy.GroovyFileException;
+import nl.openweb.hippo.groovy.GroovyFileWalker;
+import nl.openweb.hippo.groovy.GroovyFilesImportResult;
 import nl.openweb.hippo.groovy.GroovyFilesService;
 import nl.openweb.hippo.groovy.util.WatchFilesUtils;
 
@@ -47,21 +50,39 @@ import nl.openweb.hippo.groovy.util.WatchFilesUtils;
 public class GroovyFilesWatcher implements SubDirectoriesWatcher.PathChangesListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GroovyFilesWatcher.class);
+    private static final long RECONCILIATION_STOP_TIMEOUT_MILLIS = 10000;
 
     private final GroovyFilesWatcherConfig config;
     private final GroovyFilesService service;
     private final Session session;
+    private final ScriptDependencyIndex dependencyIndex;
+    private final Map<Path, Path> pendingPaths;
+    private final ScheduledExecutorService debouncer;
     private final FileSystemObserver fileSystemObserver;
+    private Thread reconciliation;
+    private ScheduledFuture<?> pendingImport;
+    private long firstPendingMillis;
 
     public GroovyFilesWatcher(final GroovyFilesWatcherConfig config, final GroovyFilesService service,
                               final Session session) {
         this.config = config;
         this.service = service;
         this.session = session;
+        this.dependencyIndex = new ScriptDependencyIndex(config.getMaxFileLengthBytes());
+        this.pendingPaths = new LinkedHashMap<>();
+        this.debouncer = config.getDebounceQuietMillis() > 0 ? createDebouncer() : null;
 
         this.fileSystemObserver = observeFileSystemIfNeeded();
     }
 
+    private static ScheduledExecutorService createDebouncer() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "groovy-files-debouncer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     private FileSystemObserver observeFileSystemIfNeeded() {
         final Path projectBaseDir = WatchFilesUtils.getProjectBaseDir();
         if (projectBaseDir == null) {
@@ -97,6 +118,11 @@ public class GroovyFilesWatcher implements SubDirectoriesWatcher.PathChangesList
                 LOGGER.error("Failed to watch or import groovy files in module '{}'", groovyFilesDirectory, e);
             }
         }
+        final GroovyFilesReconciler reconciler = new GroovyFilesReconciler(config, service, session,
+            groovyFilesDirectories, dependencyIndex);
+        reconciliation = new Thread(reconciler, "groovy-files-reconciliation");
+        reconciliation.setDaemon(true);
+        reconciliation.start();
         return fsObserver;
     }
 
@@ -110,8 +136,9 @@ public class GroovyFilesWatcher implements SubDirectoriesWatcher.PathChangesList
             return new FileSystemWatcher(watchedFiles);
         } else {
             long watchDelayMillis = config.getWatchDelayMillis();
-            LOGGER.info("Using file system poller (delay: {} ms)", watchDelayMillis);
-            return new FileSystemPoller(watchedFiles, watchDelayMillis);
+            LOGGER.info("Using file system poller (delay: {} to {} ms)", watchDelayMillis,
+                watchDelayMillis * AdaptiveFileSystemPoller.MAX_BACKOFF_FACTOR);
+            return new AdaptiveFileSystemPoller(watchedFiles, watchDelayMillis);
         }
     }
 
@@ -135,70 +162,85 @@ public class GroovyFilesWatcher implements SubDirectoriesWatcher.PathChangesList
 
     @Override
     public void onPathsChanged(final Path watchedRootDir, final Set<Path> changedPaths) {
-        final long startTime = System.currentTimeMillis();
-        Set<Path> processedPaths = new HashSet<>(changedPaths.size());
-        try {
-            for (Path changedPath : changedPaths) {
-                final Path relevantScriptPath = getRelevantScriptPath(changedPath);
-                final Path relChangedDir = watchedRootDir.relativize(relevantScriptPath);
-                reloadGroovyFile(processedPaths, relevantScriptPath, relChangedDir);
+        if (debouncer == null) {
+            final Map<Path, Path> paths = new LinkedHashMap<>(changedPaths.size());
+            changedPaths.forEach(path -> paths.put(path, watchedRootDir));
+            importChangedPaths(paths);
+            return;
+        }
+        synchronized (pendingPaths) {
+            final long now = System.currentTimeMillis();
+            if (pendingPaths.isEmpty()) {
+                firstPendingMillis = now;
             }
-            if (!processedPaths.isEmpty()) {
-                session.save();
+            changedPaths.forEach(path -> pendingPaths.putIfAbsent(path, watchedRootDir));
+            if (pendingImport != null) {
+                pendingImport.cancel(false);
             }
-        } catch (RepositoryException e) {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.info("Failed to reload groovy files from '{}', resetting session and trying to reimport whole bundle(s)",
-                    changedPaths, e);
-            } else if (LOGGER.isInfoEnabled()) {
-                LOGGER.info("Failed to reload groovy files from '{}' : '{}', resetting session and trying to reimport whole bundle(s)",
-                    changedPaths, e.getMessage());
+            long delay = config.getDebounceQuietMillis();
+            if (config.getDebounceMaxLatencyMillis() > 0) {
+                delay = Math.min(delay, Math.max(0, firstPendingMillis + config.getDebounceMaxLatencyMillis() - now));
             }
-            resetSilently(session);
-            tryReimportBundles(watchedRootDir, changedPaths);
-        } catch (IOException e) {
-            LOGGER.info("Failure on reading files", e);
+            pendingImport = debouncer.schedule(this::importPendingPaths, delay, TimeUnit.MILLISECONDS);
         }
-        final long endTime = System.currentTimeMillis();
-        LOGGER.info("Replacing groovy file took {} ms", endTime - startTime);
     }
 
-    private static Path getRelevantScriptPath(final Path path) throws IOException {
-        if(path.toString().endsWith(".groovy")){
-            return path;
-        } else {
-            try(final Stream<Path> files = Files.walk(path.getParent())) {
-                return files.filter(file -> containsPathForParameters(file, path)).findFirst().orElse(null);
-            }
+    private void importPendingPaths() {
+        final Map<Path, Path> paths;
+        synchronized (pendingPaths) {
+            paths = new LinkedHashMap<>(pendingPaths);
+            pendingPaths.clear();
+            pendingImport = null;
+        }
+        if (!paths.isEmpty()) {
+            importChangedPaths(paths);
         }
     }
 
-    private static boolean containsPathForParameters(final Path path, final Path parameters) {
-        try {
-            final File file = path.toFile();
-            return file.isFile() && FileUtils.readFileToString(file, StandardCharsets.UTF_8).contains(parameters.getFileName().toString());
-        } catch (IOException e) {
-            LOGGER.info("failed to read {}", path, e);
+    /**
+     * Import the scripts for the changed paths in one go
+     *
+     * @param changedPaths the changed paths mapped to the watched root directory they are in
+     */
+    private void importChangedPaths(final Map<Path, Path> changedPaths) {
+        final long startTime = System.currentTimeMillis();
+        final Map<File, Path> scriptFiles = new LinkedHashMap<>(changedPaths.size());
+        changedPaths.forEach((changedPath, watchedRootDir) -> {
+            for (Path scriptPath : getRelevantScriptPaths(changedPath)) {
+                if (scriptFiles.putIfAbsent(scriptPath.toFile(), watchedRootDir) == null) {
+                    LOGGER.info("Reloading groovyfile '{}'", watchedRootDir.relativize(scriptPath));
+                }
+            }
+        });
+        if (!scriptFiles.isEmpty()) {
+            final GroovyFilesImportResult result = service.importGroovyFiles(session, scriptFiles.keySet(),
+                config.getImportBatchSize(), config.getImportThreads());
+            for (File skipped : result.getSkipped()) {
+                LOGGER.info("** Failed to process '{}' as a groovy updater", scriptFiles.get(skipped).relativize(skipped.toPath()));
+            }
+            result.getFailed().forEach((file, reason) ->
+                LOGGER.info("** Failed to process '{}' as a groovy updater: {}", scriptFiles.get(file).relativize(file.toPath()), reason));
+            LOGGER.info("Reloaded groovy files: {}", result);
         }
-        return false;
+        final long endTime = System.currentTimeMillis();
+        LOGGER.info("Replacing groovy file took {} ms", endTime - startTime);
     }
 
-    private void reloadGroovyFile(final Set<Path> processedPaths, final Path changedPath, final Path relChangedDir) throws RepositoryException {
-        LOGGER.info("Reloading groovyfile '{}'", relChangedDir);
-        try {
-            if (service.importGroovyFile(session, changedPath.toFile())) {
-                processedPaths.add(changedPath);
-            } else {
-                LOGGER.info("** Failed to process '{}' as a groovy updater", relChangedDir);
-            }
-        } catch (NullPointerException e) {
-            // sigh....because org.apache.jackrabbit.vault.util.FileInputSource.getByteStream() returns null
-            // on a IOException (for example when a file is deleted during processing) I get an NPE I cannot avoid,
-            // however, it is just similar to the IOException above, typically the result of an event that will
-            // be processed shortly after this exception. Hence, ignore
-            LOGGER.debug("NullPointerException we cannot avoid because org.apache.jackrabbit.vault.util.FileInputSource.getByteStream() " +
-                "returns null on IOException. We can ignore this event since it is the result of an event that will " +
-                " be processed shortly after this exception. Hence, ignore change path '{}'", changedPath, e);
+    /**
+     * Get the scripts to reload for a changed path. A changed script is reloaded itself, a changed directory reloads
+     * all scripts in it and any other file reloads the scripts that use it as parameters file.
+     */
+    private List<Path> getRelevantScriptPaths(final Path path) {
+        if (Files.isDirectory(path)) {
+            dependencyIndex.removeDeleted(path);
+            final List<Path> scripts = GroovyFileWalker.walk(path);
+            scripts.forEach(dependencyIndex::update);
+            return scripts;
+        } else if (ScriptDependencyIndex.isGroovyFile(path)) {
+            dependencyIndex.update(path);
+            return Collections.singletonList(path);
+        } else {
+            return dependencyIndex.getDependentScripts(path).stream().sorted().collect(Collectors.toList());
         }
     }
 
@@ -207,36 +249,28 @@ public class GroovyFilesWatcher implements SubDirectoriesWatcher.PathChangesList
         // nothing to do, but needed for thread synchronization in tests
     }
 
-    private void resetSilently(final Session session) {
-        try {
-            session.refresh(false);
-        } catch (RepositoryException e) {
-            LOGGER.debug("Ignoring that session.refresh(false) failed", e);
+    public void shutdown() {
+        if (fileSystemObserver != null) {
+            fileSystemObserver.shutdown();
+        }
+        if (debouncer != null) {
+            debouncer.shutdownNow();
         }
+        stopReconciliation();
     }
 
-    private void tryReimportBundles(final Path watchedRootDir, final Set<Path> changedPaths) {
-        final Set<Path> reimportedBundleRoots = new HashSet<>();
+    private void stopReconciliation() {
+        if (reconciliation == null) {
+            return;
+        }
+        reconciliation.interrupt();
         try {
-            for (Path changedPath : changedPaths) {
-                final Path relChangedDir = watchedRootDir.relativize(changedPath);
-                final String bundleName = relChangedDir.getName(0).toString();
-                final Path bundleRootDir = watchedRootDir.resolve(bundleName);
-                if (reimportedBundleRoots.add(bundleRootDir)) {
-                    LOGGER.info("Reimporting bundle '{}'", bundleName);
-                    service.importGroovyFiles(session, bundleRootDir.toFile());
-                }
-            }
-            session.save();
-        } catch (GroovyFileException | RepositoryException e) {
-            LOGGER.warn("Failed to reimport groovy file bundles {}, resetting session", reimportedBundleRoots, e);
-            resetSilently(session);
+            reconciliation.join(RECONCILIATION_STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-    }
-
-    public void shutdown() {
-        if (fileSystemObserver != null) {
-            fileSystemObserver.shutdown();
+        if (reconciliation.isAlive()) {
+            LOGGER.warn("Reconciling groovy files did not stop within {} ms", RECONCILIATION_STOP_TIMEOUT_MILLIS);
         }
     }
 }
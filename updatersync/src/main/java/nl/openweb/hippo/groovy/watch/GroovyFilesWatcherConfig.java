@@ -57,12 +57,38 @@ public interface GroovyFilesWatcherConfig {
     /**
      * @return the delay in milliseconds between consecutive scans of files. This parameter is only effective when no
      * {@link java.nio.file.WatchService} is used to watch files for changes. A lower value will pickup changes faster
-     * at the expensive of higher CPU load.
+     * at the expensive of higher CPU load. When no changes are found the delay is increased step by step, up to 8
+     * times this value.
      */
     long getWatchDelayMillis();
 
     /**
-     * @return the maximum allowed file size too use in files.
+     * @return the maximum size in bytes of groovy files and parameters files to import. Larger files are skipped
+     * without reading them. A value of 0 or less allows files of any size.
      */
     long getMaxFileLengthBytes();
+
+    /**
+     * @return the number of changed groovy files to save in the repository at once. A value of 0 or less saves all
+     * changed files at once.
+     */
+    int getImportBatchSize();
+
+    /**
+     * @return the number of threads used to parse changed groovy files. The repository is always updated from a single
+     * thread.
+     */
+    int getImportThreads();
+
+    /**
+     * @return the time in milliseconds without file changes to wait before the collected changes are imported, so a
+     * burst of changes (e.g. a branch switch) is imported at once. A value of 0 or less imports every change directly.
+     */
+    long getDebounceQuietMillis();
+
+    /**
+     * @return the maximum time in milliseconds that collected changes wait for the quiet period before they are
+     * imported anyway. A value of 0 or less waits for the quiet period only.
+     */
+    long getDebounceMaxLatencyMillis();
 }
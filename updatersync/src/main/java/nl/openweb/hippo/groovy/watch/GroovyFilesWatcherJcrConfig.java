@@ -42,6 +42,10 @@ public class GroovyFilesWatcherJcrConfig implements GroovyFilesWatcherConfig {
     private static final String WATCHED_MODULES_PROPERTY = "watchedModules";
     private static final String WATCH_DELAY_MILLIS = "watchDelayMillis";
     private static final String MAX_FILE_LENGTH_KB = "maxFileLengthKb";
+    private static final String IMPORT_BATCH_SIZE = "importBatchSize";
+    private static final String IMPORT_THREADS = "importThreads";
+    private static final String DEBOUNCE_QUIET_MILLIS = "debounceQuietMillis";
+    private static final String DEBOUNCE_MAX_LATENCY_MILLIS = "debounceMaxLatencyMillis";
     private static final String PARAM_PREFIX = "groovy.sync.";
 
     private final List<String> watchedModules;
@@ -50,6 +54,10 @@ public class GroovyFilesWatcherJcrConfig implements GroovyFilesWatcherConfig {
     private final List<String> useWatchServiceOnOsNames;
     private final long watchDelayMillis;
     private final long maxFileLengthBytes;
+    private final int importBatchSize;
+    private final int importThreads;
+    private final long debounceQuietMillis;
+    private final long debounceMaxLatencyMillis;
 
     public GroovyFilesWatcherJcrConfig(final Node configNode) throws RepositoryException {
         watchedModules = getMultipleStringConfig(configNode, WATCHED_MODULES_PROPERTY, WatchFilesUtils.DEFAULT_WATCHED_MODULES);
@@ -58,6 +66,10 @@ public class GroovyFilesWatcherJcrConfig implements GroovyFilesWatcherConfig {
         useWatchServiceOnOsNames = getMultipleStringConfig(configNode, USE_WATCH_SERVICE_ON_OS_NAMES, WatchFilesUtils.DEFAULT_USE_WATCH_SERVICE_ON_OS_NAMES);
         watchDelayMillis = JcrUtils.getLongProperty(configNode, WATCH_DELAY_MILLIS, WatchFilesUtils.DEFAULT_WATCH_DELAY_MILLIS);
         maxFileLengthBytes = 1024 * JcrUtils.getLongProperty(configNode, MAX_FILE_LENGTH_KB, WatchFilesUtils.DEFAULT_MAX_FILE_LENGTH_KB);
+        importBatchSize = JcrUtils.getLongProperty(configNode, IMPORT_BATCH_SIZE, WatchFilesUtils.DEFAULT_IMPORT_BATCH_SIZE).intValue();
+        importThreads = JcrUtils.getLongProperty(configNode, IMPORT_THREADS, WatchFilesUtils.DEFAULT_IMPORT_THREADS).intValue();
+        debounceQuietMillis = JcrUtils.getLongProperty(configNode, DEBOUNCE_QUIET_MILLIS, WatchFilesUtils.DEFAULT_DEBOUNCE_QUIET_MILLIS);
+        debounceMaxLatencyMillis = JcrUtils.getLongProperty(configNode, DEBOUNCE_MAX_LATENCY_MILLIS, WatchFilesUtils.DEFAULT_DEBOUNCE_MAX_LATENCY_MILLIS);
     }
 
     private List<String> getMultipleStringConfig(final Node configNode, final String propertyName, final String[] defaultValue) {
@@ -113,4 +125,24 @@ public class GroovyFilesWatcherJcrConfig implements GroovyFilesWatcherConfig {
     public long getMaxFileLengthBytes() {
         return maxFileLengthBytes;
     }
+
+    @Override
+    public int getImportBatchSize() {
+        return importBatchSize;
+    }
+
+    @Override
+    public int getImportThreads() {
+        return importThreads;
+    }
+
+    @Override
+    public long getDebounceQuietMillis() {
+        return debounceQuietMillis;
+    }
+
+    @Override
+    public long getDebounceMaxLatencyMillis() {
+        return debounceMaxLatencyMillis;
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps paths to values, and finds the value of the longest registered path that a given path starts with. The
+ * lookup cost depends on the depth of the given path, not on the number of registered paths.
+ *
+ * @param <V> type of the values
+ */
+class PathTrie<V> {
+
+    private final Node<V> root = new Node<>();
+
+    synchronized void put(final Path path, final V value) {
+        Node<V> node = root;
+        for (String segment : getSegments(path)) {
+            node = node.children.computeIfAbsent(segment, key -> new Node<>());
+        }
+        node.value = value;
+    }
+
+    /**
+     * @param path the path to look up
+     * @return the value of the longest registered path that is a prefix of (or equal to) the path, or null when none
+     * of the registered paths is
+     */
+    synchronized V getLongestPrefix(final Path path) {
+        Node<V> node = root;
+        V value = root.value;
+        for (String segment : getSegments(path)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                value = node.value;
+            }
+        }
+        return value;
+    }
+
+    private static List<String> getSegments(final Path path) {
+        final List<String> segments = new ArrayList<>(path.getNameCount() + 1);
+        if (path.getRoot() != null) {
+            segments.add(path.getRoot().toString());
+        }
+        for (Path name : path) {
+            segments.add(name.toString());
+        }
+        return segments;
+    }
+
+    private static class Node<V> {
+        private final Map<String, Node<V>> children = new HashMap<>();
+        private V value;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import nl.openweb.hippo.groovy.AnnotationBuilder;
+import nl.openweb.hippo.groovy.PropertyCollector;
+import nl.openweb.hippo.groovy.ScriptClassFactory;
+import nl.openweb.hippo.groovy.annotations.Updater;
+import nl.openweb.hippo.groovy.model.ScriptClass;
+import nl.openweb.hippo.groovy.model.ScriptHeader;
+import static nl.openweb.hippo.groovy.model.Constants.Files.GROOVY_EXTENSION;
+
+/**
+ * Keeps track of which groovy scripts read their parameters from which file, so a changed parameters file can be
+ * mapped to the scripts that need to be reloaded without scanning the file system. Only the header of a script is
+ * read to find its parameters file.
+ */
+class ScriptDependencyIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScriptDependencyIndex.class);
+
+    private final Map<Path, Set<Path>> dependentScripts = new HashMap<>();
+    private final Map<Path, Path> dependencies = new HashMap<>();
+    private final long maxFileLength;
+
+    /**
+     * @param maxFileLength the maximum size of the groovy files to read, 0 or less for no maximum
+     */
+    ScriptDependencyIndex(final long maxFileLength) {
+        this.maxFileLength = maxFileLength;
+    }
+
+    static boolean isGroovyFile(final Path path) {
+        return path.toString().endsWith(GROOVY_EXTENSION);
+    }
+
+    /**
+     * (Re)read the parameters reference of a groovy script
+     *
+     * @param script the script that is created or changed
+     */
+    void update(final Path script) {
+        final Path key = normalize(script);
+        final Path parametersFile = getParametersFile(key);
+        synchronized (this) {
+            removeDependency(key);
+            if (parametersFile != null) {
+                dependencies.put(key, parametersFile);
+                dependentScripts.computeIfAbsent(parametersFile, path -> new HashSet<>()).add(key);
+            }
+        }
+    }
+
+    /**
+     * Forget the scripts that no longer exist in a directory
+     *
+     * @param directory the directory that changed
+     */
+    synchronized void removeDeleted(final Path directory) {
+        final Path root = normalize(directory);
+        dependencies.keySet().stream()
+            .filter(script -> script.startsWith(root) && !Files.exists(script))
+            .collect(Collectors.toList())
+            .forEach(this::removeDependency);
+    }
+
+    /**
+     * @param file a changed file
+     * @return the scripts that read their parameters from the file
+     */
+    synchronized Set<Path> getDependentScripts(final Path file) {
+        final Set<Path> scripts = dependentScripts.get(normalize(file));
+        return scripts == null ? Collections.emptySet() : new HashSet<>(scripts);
+    }
+
+    private void removeDependency(final Path script) {
+        final Path parametersFile = dependencies.remove(script);
+        if (parametersFile != null) {
+            final Set<Path> scripts = dependentScripts.get(parametersFile);
+            scripts.remove(script);
+            if (scripts.isEmpty()) {
+                dependentScripts.remove(parametersFile);
+            }
+        }
+    }
+
+    private Path getParametersFile(final Path script) {
+        try {
+            final File file = script.toFile();
+            final ScriptHeader header = ScriptClassFactory.readHeader(file, maxFileLength);
+            if (header == null || !header.isUpdater()) {
+                return null;
+            }
+            final File parametersFile = PropertyCollector.getParametersFile(getScriptClass(file, header), file.getParentFile());
+            return parametersFile == null ? null : normalize(parametersFile.toPath());
+        } catch (InvalidPathException e) {
+            //the parameters are not a file reference
+            return null;
+        } catch (RuntimeException e) {
+            LOGGER.debug("Cannot read the parameters of {}", script, e);
+            return null;
+        }
+    }
+
+    /**
+     * Build the updater from the header, only interpreting the whole script when an attribute is not a plain constant
+     */
+    private ScriptClass getScriptClass(final File file, final ScriptHeader header) {
+        try {
+            return new ScriptClass(file, AnnotationBuilder.build(Updater.class, header.getAnnotation(Updater.class)), null, false, null);
+        } catch (IllegalArgumentException e) {
+            final ScriptClass scriptClass = ScriptClassFactory.getInterpretingClass(file, false,
+                ScriptClassFactory.InterpretMode.PARSE, maxFileLength);
+            if (scriptClass == null || !scriptClass.isValid()) {
+                throw new IllegalArgumentException("Not a valid updater: " + file, e);
+            }
+            return scriptClass;
+        }
+    }
+
+    private static Path normalize(final Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Shares one {@link WatchService} and one thread between all {@link FileSystemWatcher} instances. The thread waits for
+ * signalled watch keys and hands them to the watcher that registered them, which processes them on its own thread, so
+ * a slow listener does not hold up the other watchers. The dispatcher is started by the first watcher that acquires
+ * it, and closed when the last one releases it.
+ */
+final class WatchServiceDispatcher implements Runnable {
+
+    static final int POLLING_TIME_MILLIS = 100;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatchServiceDispatcher.class);
+    private static final Thread.UncaughtExceptionHandler UNCAUGHT_EXCEPTION_HANDLER =
+        (exceptionThread, exception) -> LOGGER.warn("FileSystemWatcher '{}' crashed", exceptionThread.getName(), exception);
+
+    private static WatchServiceDispatcher instance;
+    private static int references;
+
+    private final WatchService watchService;
+    private final Map<WatchKey, FileSystemWatcher> owners;
+    private final Object registrationLock = new Object();
+    private final Thread thread;
+
+    private WatchServiceDispatcher() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        owners = new ConcurrentHashMap<>();
+        thread = new Thread(this, "FileSystemWatcher");
+        thread.setUncaughtExceptionHandler(UNCAUGHT_EXCEPTION_HANDLER);
+        thread.start();
+    }
+
+    static synchronized WatchServiceDispatcher acquire() throws IOException {
+        if (instance == null) {
+            instance = new WatchServiceDispatcher();
+        }
+        references++;
+        return instance;
+    }
+
+    static void release(final WatchServiceDispatcher dispatcher) {
+        synchronized (WatchServiceDispatcher.class) {
+            if (dispatcher != instance || --references > 0) {
+                return;
+            }
+            instance = null;
+        }
+        dispatcher.close();
+    }
+
+    /**
+     * Register a directory for the owner. The signalled keys are not dispatched before the owner knows about the key,
+     * so no events get lost for a directory that changes while it is registered.
+     */
+    void register(final Path directory, final FileSystemWatcher owner) throws IOException {
+        synchronized (registrationLock) {
+            final WatchKey key = directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            owner.watchKeyRegistered(key, directory);
+            owners.put(key, owner);
+        }
+    }
+
+    void unregister(final WatchKey key) {
+        key.cancel();
+        owners.remove(key);
+    }
+
+    /**
+     * @return the owner of the key, waiting for a registration of the key that is still in progress
+     */
+    private FileSystemWatcher getOwner(final WatchKey key) {
+        final FileSystemWatcher owner = owners.get(key);
+        if (owner != null) {
+            return owner;
+        }
+        synchronized (registrationLock) {
+            return owners.get(key);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            LOGGER.info("Watch started, polling every {} ms", POLLING_TIME_MILLIS);
+            while (!Thread.currentThread().isInterrupted()) {
+                dispatchChanges();
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.info("Watch closed");
+        } finally {
+            IOUtils.closeQuietly(watchService);
+        }
+    }
+
+    private void dispatchChanges() {
+        try {
+            LOGGER.debug("Waiting for changes...");
+            final List<WatchKey> keys = new ArrayList<>();
+            keys.add(watchService.take());
+            pollForMoreChanges(keys);
+            dispatch(keys);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.warn("Exception while processing watch keys: {}", e, e);
+        }
+    }
+
+    /**
+     * Keep polling for a short time: when (multiple) directories get deleted the watch keys might arrive just a bit
+     * later
+     */
+    private void pollForMoreChanges(final List<WatchKey> keys) throws InterruptedException {
+        final long startPolling = System.currentTimeMillis();
+        WatchKey key = watchService.poll(POLLING_TIME_MILLIS, TimeUnit.MILLISECONDS);
+        while (key != null) {
+            LOGGER.debug("Found change for '{}' found during extra polling time", key.watchable());
+            keys.add(key);
+            key = watchService.poll(POLLING_TIME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Polled '{}' more changes during '{}' ms", keys.size() - 1, System.currentTimeMillis() - startPolling);
+        }
+    }
+
+    private void dispatch(final List<WatchKey> keys) {
+        final Map<FileSystemWatcher, List<WatchKey>> keysPerOwner = new LinkedHashMap<>();
+        for (WatchKey key : keys) {
+            final FileSystemWatcher owner = getOwner(key);
+            if (owner == null) {
+                LOGGER.warn("Ignoring watch event for unknown directory: {}", key.watchable());
+                key.pollEvents();
+                key.reset();
+            } else {
+                keysPerOwner.computeIfAbsent(owner, watcher -> new ArrayList<>()).add(key);
+            }
+        }
+        keysPerOwner.forEach(FileSystemWatcher::dispatchWatchKeys);
+    }
+
+    private void close() {
+        try {
+            watchService.close();
+            if (Thread.currentThread() != thread) {
+                thread.join(CLOSE_TIMEOUT_MILLIS);
+                if (thread.isAlive()) {
+                    LOGGER.warn("FileSystemWatcher thread did not stop within {} ms", CLOSE_TIMEOUT_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // ignore, but don't wait for the thread
+            LOGGER.debug("Ignoring exception while closing watcher", e);
+        }
+    }
+}
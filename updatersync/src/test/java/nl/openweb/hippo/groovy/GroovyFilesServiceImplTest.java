@@ -19,9 +19,19 @@ package nl.openweb.hippo.groovy;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.jcr.Node;
 import javax.jcr.Property;
@@ -29,14 +39,20 @@ import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.sling.testing.mock.jcr.MockJcr;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
 
+import static nl.openweb.hippo.groovy.ScriptClassFactory.readFileEnsuringLinuxLineEnding;
 import static nl.openweb.hippo.groovy.model.Constants.NodeType.HIPPOSYS_UPDATERINFO;
+import static nl.openweb.hippo.groovy.model.Constants.PropertyName.JCR_MIXIN_TYPES;
 import static nl.openweb.hippo.groovy.util.WatchFilesUtils.SCRIPT_ROOT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GroovyFilesServiceImplTest {
     private final GroovyFilesServiceImpl service = new GroovyFilesServiceImpl();
@@ -113,13 +129,161 @@ class GroovyFilesServiceImplTest {
         assertProps(testProperties, updaterNode);
     }
 
+    @Test
+    void importGroovyFilesInBatches() throws URISyntaxException, IOException, RepositoryException {
+        final String content = readFileEnsuringLinuxLineEnding(new File(getClass().getResource("/updater.groovy").toURI()));
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            files.add(createScript(content.replace("Test Updater", "Test Updater " + i)));
+        }
+        final File notAnUpdater = createScript("class NotAnUpdater {}");
+        final File invalidName = createScript(content.replace("Test Updater", "Test: Updater"));
+        files.add(notAnUpdater);
+        files.add(invalidName);
+
+        final GroovyFilesImportResult result = service.importGroovyFiles(session, files, 2, 2);
+
+        assertEquals(files.subList(0, 5), result.getImported());
+        assertEquals(List.of(notAnUpdater), result.getSkipped());
+        assertEquals(List.of(invalidName), new ArrayList<>(result.getFailed().keySet()));
+        assertEquals(3, result.getSaves());
+        assertEquals(5, scriptRoot.getNodes().getSize());
+    }
+
+    @Test
+    void importUnchangedGroovyFile() throws URISyntaxException, RepositoryException {
+        File file = new File(getClass().getResource("/updater.groovy").toURI());
+        service.importGroovyFile(session, file);
+        session.save();
+
+        final GroovyFilesImportResult result = service.importGroovyFiles(session, List.of(file), 0, 1);
+
+        assertEquals(List.of(file), result.getUnchanged());
+        assertEquals(0, result.getImported().size());
+        assertEquals(0, result.getSaves());
+        assertFalse(session.hasPendingChanges());
+    }
+
+    @Test
+    void importChangedGroovyFileRemovesProperties() throws URISyntaxException, RepositoryException, IOException {
+        URL testfileProperties = getClass().getResource("/updater.properties");
+        service.importGroovyFile(session, new File(getClass().getResource("/updater.groovy").toURI()));
+        session.save();
+
+        final GroovyFilesImportResult result = service.importGroovyFiles(session,
+            List.of(new File(getClass().getResource("/updater-script.groovy").toURI())), 0, 1);
+
+        assertEquals(1, result.getImported().size());
+        Properties testProperties = new Properties();
+        testProperties.load(new FileReader(testfileProperties.getFile()));
+        testProperties.remove("hipposys:query");
+        assertProps(testProperties, scriptRoot.getNode("Test Updater"));
+    }
+
+    @Test
+    void importGroovyFileWithMatchingFingerprint() throws URISyntaxException, RepositoryException, IOException {
+        final File file = createScript(readFileEnsuringLinuxLineEnding(new File(getClass().getResource("/updater.groovy").toURI())));
+        assertEquals(List.of(file), service.importGroovyFiles(session, List.of(file), 0, 1).getImported());
+        final Node updaterNode = scriptRoot.getNode("Test Updater");
+        assertTrue(updaterNode.hasProperty(ScriptFingerprint.PROPERTY));
+        updaterNode.setProperty("hipposys:script", "changed in the repository");
+        session.save();
+
+        assertEquals(List.of(file), service.importGroovyFiles(session, List.of(file), 0, 1).getUnchanged());
+        assertEquals("changed in the repository", updaterNode.getProperty("hipposys:script").getString());
+
+        // the fingerprint is read from the node, so a restart does not compare the script again
+        final GroovyFilesServiceImpl restartedService = new GroovyFilesServiceImpl();
+        assertEquals(List.of(file), restartedService.importGroovyFiles(session, List.of(file), 0, 1).getUnchanged());
+        assertEquals("changed in the repository", updaterNode.getProperty("hipposys:script").getString());
+
+        // a touched file with the same content is still unchanged
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        assertEquals(List.of(file), restartedService.importGroovyFiles(session, List.of(file), 0, 1).getUnchanged());
+
+        FileUtils.writeStringToFile(file, FileUtils.readFileToString(file, StandardCharsets.UTF_8) + "\n//changed",
+            StandardCharsets.UTF_8);
+        assertEquals(List.of(file), restartedService.importGroovyFiles(session, List.of(file), 0, 1).getImported());
+        assertNotEquals("changed in the repository", updaterNode.getProperty("hipposys:script").getString());
+    }
+
+    @Test
+    void overlappingImportsWriteTheNodeOneAtATime() throws URISyntaxException, RepositoryException, InterruptedException,
+        ExecutionException, TimeoutException {
+        final File file = new File(getClass().getResource("/updater.groovy").toURI());
+        final CountDownLatch saving = new CountDownLatch(1);
+        final CountDownLatch releaseSave = new CountDownLatch(1);
+        // like the reconciliation, saving with a session of its own
+        final Session reconcileSession = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+            new Class<?>[]{Session.class}, (proxy, method, args) -> {
+                if ("save".equals(method.getName())) {
+                    saving.countDown();
+                    releaseSave.await(10, TimeUnit.SECONDS);
+                }
+                try {
+                    return method.invoke(session, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        final CompletableFuture<GroovyFilesImportResult> reconciled = CompletableFuture.supplyAsync(() ->
+            service.importGroovyFiles(reconcileSession, List.of(file), 0, 1));
+        assertTrue(saving.await(10, TimeUnit.SECONDS), "Reconciliation does not save");
+
+        final Thread watcher = new Thread(() -> service.importGroovyFiles(session, List.of(file), 0, 1));
+        watcher.start();
+        for (int i = 0; i < 100 && watcher.getState() != Thread.State.BLOCKED; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(Thread.State.BLOCKED, watcher.getState(), "Watcher import does not wait for the reconciliation");
+
+        releaseSave.countDown();
+        assertEquals(List.of(file), reconciled.get(10, TimeUnit.SECONDS).getImported());
+        watcher.join(10000);
+        assertFalse(watcher.isAlive());
+        assertEquals(1, scriptRoot.getNodes().getSize());
+    }
+
+    @Test
+    void importTooLargeGroovyFiles() throws URISyntaxException, IOException, RepositoryException {
+        final GroovyFilesServiceImpl limitedService = new GroovyFilesServiceImpl(2048);
+        final String content = readFileEnsuringLinuxLineEnding(new File(getClass().getResource("/updater.groovy").toURI()));
+        final File script = createScript(content);
+        final File largeScript = createScript(content.replace("Test Updater", "Large Updater") + "//" + "x".repeat(2048));
+        final File largeParameters = createScript("{\"x\": \"" + "x".repeat(2048) + "\"}");
+        final String extContent = readFileEnsuringLinuxLineEnding(new File(getClass().getResource("/updater-ext.groovy").toURI()));
+        final File largeParametersScript = createScript(extContent.replace("Test Updater", "Large Parameters Updater")
+            .replace("updater-parameters.json", largeParameters.getName()));
+
+        final GroovyFilesImportResult result = limitedService.importGroovyFiles(session,
+            List.of(script, largeScript, largeParametersScript), 0, 1);
+
+        assertEquals(List.of(script), result.getImported());
+        assertEquals(List.of(largeScript, largeParametersScript), new ArrayList<>(result.getFailed().keySet()));
+        assertFalse(limitedService.importGroovyFile(session, largeParametersScript));
+    }
+
+    private File createScript(final String content) throws IOException {
+        final File file = File.createTempFile("updater", ".groovy");
+        file.deleteOnExit();
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
     void assertProps(Properties expected, Node node) throws RepositoryException {
-        final PropertyIterator properties = node.getProperties();
-        if (expected.size() != properties.getSize()) {
-            throw new AssertionFailedError("Amount of properties varies", expected.size(), properties.getSize());
+        final List<Property> properties = new ArrayList<>();
+        for (PropertyIterator iterator = node.getProperties(); iterator.hasNext(); ) {
+            final Property property = iterator.nextProperty();
+            // the fingerprint is stored on the node next to the properties of the script
+            if (!ScriptFingerprint.PROPERTY.equals(property.getName())
+                && !(JCR_MIXIN_TYPES.equals(property.getName()) && !expected.containsKey(JCR_MIXIN_TYPES))) {
+                properties.add(property);
+            }
+        }
+        if (expected.size() != properties.size()) {
+            throw new AssertionFailedError("Amount of properties varies", expected.size(), properties.size());
         }
-        while (properties.hasNext()) {
-            final Property property = properties.nextProperty();
+        for (Property property : properties) {
             assertEquals(expected.getProperty(property.getName()), property.getString(), "Mismatch of property: " + property.getName());
         }
     }
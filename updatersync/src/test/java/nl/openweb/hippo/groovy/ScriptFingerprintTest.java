@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptFingerprintTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void matchFilesOfStoredFingerprint() throws IOException {
+        final File script = Files.writeString(directory.resolve("my script.groovy"), "script").toFile();
+        final File parameters = Files.writeString(directory.resolve("parameters.json"), "{}").toFile();
+        final String stored = ScriptFingerprint.of(script).with(parameters).toString();
+
+        final ScriptFingerprint fingerprint = ScriptFingerprint.parse(stored);
+        assertNotNull(fingerprint);
+        assertEquals(script.getAbsolutePath(), fingerprint.getScriptPath());
+        assertEquals(stored, fingerprint.toString());
+        assertTrue(fingerprint.matchesFiles());
+
+        // touched, but the same content
+        assertTrue(parameters.setLastModified(parameters.lastModified() - 10000));
+        assertTrue(fingerprint.matchesFiles());
+
+        Files.writeString(parameters.toPath(), "{ }");
+        assertFalse(fingerprint.matchesFiles());
+        Files.writeString(parameters.toPath(), "{}");
+        Files.delete(script.toPath());
+        assertFalse(fingerprint.matchesFiles());
+    }
+
+    @Test
+    void parseInvalidFingerprint() {
+        assertNull(ScriptFingerprint.parse(""));
+        assertNull(ScriptFingerprint.parse("12 x hash /path"));
+    }
+}
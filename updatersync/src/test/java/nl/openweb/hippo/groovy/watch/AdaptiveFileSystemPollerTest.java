@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveFileSystemPollerTest {
+
+    @TempDir
+    Path root;
+
+    private final List<String> events = new ArrayList<>();
+    private Runnable onStart = () -> {};
+    private AdaptiveFileSystemPoller poller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final GlobFileNameMatcher matcher = new GlobFileNameMatcher();
+        matcher.includeFiles("*.groovy");
+        matcher.excludeDirectories("target");
+        // never polls by itself, the test polls
+        poller = new AdaptiveFileSystemPoller(matcher, 3600_000L);
+        Files.createDirectories(root.resolve("sub"));
+        Files.writeString(root.resolve("sub/existing.groovy"), "a");
+        Files.writeString(root.resolve("sub/ignored.txt"), "a");
+        poller.registerDirectory(root, new RecordingListener());
+    }
+
+    @AfterEach
+    void tearDown() {
+        poller.shutdown();
+    }
+
+    @Test
+    void noChanges() {
+        assertFalse(poller.pollOnce());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void reportMatchingChanges() throws IOException {
+        Files.writeString(root.resolve("sub/new.groovy"), "a");
+        Files.writeString(root.resolve("sub/existing.groovy"), "ab");
+        Files.writeString(root.resolve("sub/ignored.txt"), "ab");
+        Files.createDirectories(root.resolve("target"));
+        Files.createDirectories(root.resolve("created"));
+
+        assertTrue(poller.pollOnce());
+        Collections.sort(events);
+        assertEquals(Arrays.asList("directoryCreated created", "fileCreated sub/new.groovy",
+            "fileModified sub/existing.groovy", "start", "stop"), events);
+
+        events.clear();
+        assertFalse(poller.pollOnce());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void reportDeletions() throws IOException {
+        Files.delete(root.resolve("sub/existing.groovy"));
+        Files.delete(root.resolve("sub/ignored.txt"));
+        Files.delete(root.resolve("sub"));
+
+        assertTrue(poller.pollOnce());
+        assertEquals(Arrays.asList("start", "directoryDeleted sub", "stop"), events);
+    }
+
+    @Test
+    void notifyListenersWithoutHoldingTheLock() throws IOException {
+        onStart = () -> {
+            try {
+                // another thread, like a directory registration, can use the poller while the listener runs
+                assertEquals(List.of(root), CompletableFuture.supplyAsync(poller::getObservedRootDirectories)
+                    .get(5, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                fail(e);
+            }
+        };
+        Files.writeString(root.resolve("sub/new.groovy"), "a");
+
+        assertTrue(poller.pollOnce());
+        assertEquals(Arrays.asList("start", "fileCreated sub/new.groovy", "stop"), events);
+    }
+
+    private class RecordingListener implements FileSystemListener {
+
+        @Override
+        public void fileSystemChangesStarted() {
+            events.add("start");
+            onStart.run();
+        }
+
+        @Override
+        public void directoryCreated(final Path directory) {
+            events.add("directoryCreated " + root.relativize(directory));
+        }
+
+        @Override
+        public void directoryModified(final Path directory) {
+            events.add("directoryModified " + root.relativize(directory));
+        }
+
+        @Override
+        public void directoryDeleted(final Path directory) {
+            events.add("directoryDeleted " + root.relativize(directory));
+        }
+
+        @Override
+        public void fileCreated(final Path file) {
+            events.add("fileCreated " + root.relativize(file));
+        }
+
+        @Override
+        public void fileModified(final Path file) {
+            events.add("fileModified " + root.relativize(file));
+        }
+
+        @Override
+        public void fileDeleted(final Path file) {
+            events.add("fileDeleted " + root.relativize(file));
+        }
+
+        @Override
+        public void fileSystemChangesStopped() {
+            events.add("stop");
+        }
+    }
+}
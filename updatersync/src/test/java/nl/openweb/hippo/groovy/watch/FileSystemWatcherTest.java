@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemWatcherTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void slowListenerDoesNotBlockOtherWatchers() throws IOException, InterruptedException {
+        final Path slowDirectory = Files.createDirectories(root.resolve("slow"));
+        final Path otherDirectory = Files.createDirectories(root.resolve("other"));
+        final GlobFileNameMatcher matcher = new GlobFileNameMatcher();
+        matcher.includeFiles("*.groovy");
+        final FileSystemWatcher slowWatcher = new FileSystemWatcher(matcher);
+        final FileSystemWatcher otherWatcher = new FileSystemWatcher(matcher);
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final CountDownLatch releaseSlow = new CountDownLatch(1);
+        final CountDownLatch otherCreated = new CountDownLatch(1);
+        try {
+            slowWatcher.registerDirectory(slowDirectory, new CreatedListener(() -> {
+                slowStarted.countDown();
+                try {
+                    releaseSlow.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            otherWatcher.registerDirectory(otherDirectory, new CreatedListener(otherCreated::countDown));
+
+            Files.writeString(slowDirectory.resolve("slow.groovy"), "a");
+            assertTrue(slowStarted.await(10, TimeUnit.SECONDS), "Slow listener is not notified");
+            Files.writeString(otherDirectory.resolve("other.groovy"), "a");
+            assertTrue(otherCreated.await(10, TimeUnit.SECONDS), "Other listener waits for the slow listener");
+        } finally {
+            releaseSlow.countDown();
+            slowWatcher.shutdown();
+            otherWatcher.shutdown();
+        }
+    }
+
+    private static class CreatedListener implements FileSystemListener {
+
+        private final Runnable onFileCreated;
+
+        CreatedListener(final Runnable onFileCreated) {
+            this.onFileCreated = onFileCreated;
+        }
+
+        @Override
+        public void fileSystemChangesStarted() {
+        }
+
+        @Override
+        public void directoryCreated(final Path directory) {
+        }
+
+        @Override
+        public void directoryModified(final Path directory) {
+        }
+
+        @Override
+        public void directoryDeleted(final Path directory) {
+        }
+
+        @Override
+        public void fileCreated(final Path file) {
+            onFileCreated.run();
+        }
+
+        @Override
+        public void fileModified(final Path file) {
+        }
+
+        @Override
+        public void fileDeleted(final Path file) {
+        }
+
+        @Override
+        public void fileSystemChangesStopped() {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.sling.testing.mock.jcr.MockJcr;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import nl.openweb.hippo.groovy.GroovyFilesImportResult;
+import nl.openweb.hippo.groovy.GroovyFilesServiceImpl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static nl.openweb.hippo.groovy.util.WatchFilesUtils.SCRIPT_ROOT;
+
+class GroovyFilesReconcilerTest {
+
+    @TempDir
+    Path scripts;
+
+    @Test
+    void reconcileOnlyChangedScripts() throws URISyntaxException, RepositoryException, IOException {
+        final Session session = MockJcr.newSession();
+        Node node = session.getRootNode();
+        for (final String name : SCRIPT_ROOT.split("/")) {
+            node = node.addNode(name);
+        }
+        final Path script = scripts.resolve("updater.groovy");
+        Files.copy(Path.of(getClass().getResource("/updater.groovy").toURI()), script);
+        final GroovyFilesReconciler reconciler = new GroovyFilesReconciler(new GroovyFilesWatcherTestConfig(),
+            new GroovyFilesServiceImpl(), session, Collections.singletonList(scripts), new ScriptDependencyIndex(0));
+
+        final GroovyFilesImportResult first = reconciler.reconcile(session);
+        assertEquals(Collections.singletonList(script.toFile()), first.getImported());
+        assertTrue(node.hasNode("Test Updater"));
+
+        final GroovyFilesImportResult second = reconciler.reconcile(session);
+        assertTrue(second.getImported().isEmpty());
+        assertEquals(Collections.singletonList(script.toFile()), second.getUnchanged());
+    }
+
+    @Test
+    void reconcileIndexesParametersFiles() throws URISyntaxException, RepositoryException, IOException {
+        final Session session = MockJcr.newSession();
+        Node node = session.getRootNode();
+        for (final String name : SCRIPT_ROOT.split("/")) {
+            node = node.addNode(name);
+        }
+        final Path script = scripts.resolve("updater-ext.groovy");
+        final Path parameters = scripts.resolve("updater-parameters.json");
+        Files.copy(Path.of(getClass().getResource("/updater-ext.groovy").toURI()), script);
+        Files.copy(Path.of(getClass().getResource("/updater-parameters.json").toURI()), parameters);
+        final ScriptDependencyIndex dependencyIndex = new ScriptDependencyIndex(0);
+        final GroovyFilesReconciler reconciler = new GroovyFilesReconciler(new GroovyFilesWatcherTestConfig(),
+            new GroovyFilesServiceImpl(), session, Collections.singletonList(scripts), dependencyIndex);
+
+        assertTrue(dependencyIndex.getDependentScripts(parameters).isEmpty());
+        reconciler.reconcile(session);
+        assertEquals(Collections.singleton(script.toAbsolutePath().normalize()), dependencyIndex.getDependentScripts(parameters));
+    }
+
+    @Test
+    void reconcileStopsWhenInterrupted() throws URISyntaxException, RepositoryException, IOException {
+        final Session session = MockJcr.newSession();
+        Node node = session.getRootNode();
+        for (final String name : SCRIPT_ROOT.split("/")) {
+            node = node.addNode(name);
+        }
+        Files.copy(Path.of(getClass().getResource("/updater.groovy").toURI()), scripts.resolve("updater.groovy"));
+        final GroovyFilesReconciler reconciler = new GroovyFilesReconciler(new GroovyFilesWatcherTestConfig(),
+            new GroovyFilesServiceImpl(), session, Collections.singletonList(scripts), new ScriptDependencyIndex(0));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertTrue(reconciler.reconcile(session).getImported().isEmpty());
+            assertFalse(node.hasNode("Test Updater"));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
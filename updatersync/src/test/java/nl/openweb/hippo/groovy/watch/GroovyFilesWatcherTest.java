@@ -16,10 +16,14 @@
 
 package nl.openweb.hippo.groovy.watch;
 
+import java.io.File;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
@@ -28,6 +32,7 @@ import javax.jcr.Session;
 import org.apache.sling.testing.mock.jcr.MockJcr;
 import org.junit.jupiter.api.Test;
 
+import nl.openweb.hippo.groovy.GroovyFilesImportResult;
 import nl.openweb.hippo.groovy.GroovyFilesServiceImpl;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,4 +64,51 @@ class GroovyFilesWatcherTest {
         final long scriptNodes = session.getRootNode().getNode(SCRIPT_ROOT).getNodes().getSize();
         assertEquals(1, scriptNodes, "Script path not processed");
     }
-}
\ No newline at end of file
+
+    @Test
+    void onParametersChanged() throws URISyntaxException, RepositoryException {
+        Path scriptPath = Path.of(getClass().getResource("/updater-ext.groovy").toURI());
+        Path parametersPath = Path.of(getClass().getResource("/updater-parameters.json").toURI());
+        Path rootPath = scriptPath.getParent();
+        watcher.onPathsChanged(rootPath, Collections.singleton(scriptPath));
+        final Node scriptRoot = session.getRootNode().getNode(SCRIPT_ROOT);
+        assertTrue(scriptRoot.hasNode("Test Updater"), "Script path not processed");
+
+        scriptRoot.getNode("Test Updater").remove();
+        watcher.onPathsChanged(rootPath, Collections.singleton(parametersPath));
+        assertTrue(scriptRoot.hasNode("Test Updater"), "Dependent script not reloaded");
+    }
+
+    @Test
+    void onPathsChangedDebounced() throws URISyntaxException, InterruptedException {
+        final List<Collection<File>> imports = Collections.synchronizedList(new ArrayList<>());
+        final GroovyFilesServiceImpl recordingService = new GroovyFilesServiceImpl() {
+            @Override
+            public GroovyFilesImportResult importGroovyFiles(final Session session, final Collection<File> files,
+                                                             final int batchSize, final int threads) {
+                imports.add(new ArrayList<>(files));
+                return super.importGroovyFiles(session, files, batchSize, threads);
+            }
+        };
+        final GroovyFilesWatcher debouncedWatcher = new GroovyFilesWatcher(new GroovyFilesWatcherTestConfig() {
+            @Override
+            public long getDebounceQuietMillis() {
+                return 200;
+            }
+        }, recordingService, session);
+
+        Path scriptPath = Path.of(getClass().getResource("/updater-script.groovy").toURI());
+        Path otherScriptPath = Path.of(getClass().getResource("/updater.groovy").toURI());
+        Path rootPath = scriptPath.getParent();
+        debouncedWatcher.onPathsChanged(rootPath, Collections.singleton(scriptPath));
+        debouncedWatcher.onPathsChanged(rootPath, Collections.singleton(otherScriptPath));
+        assertTrue(imports.isEmpty(), "Changes imported before the quiet period");
+
+        for (int i = 0; i < 50 && imports.isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        debouncedWatcher.shutdown();
+        assertEquals(1, imports.size(), "Changes not imported at once");
+        assertEquals(2, imports.get(0).size());
+    }
+}
@@ -49,4 +49,24 @@ public class GroovyFilesWatcherTestConfig implements GroovyFilesWatcherConfig {
     public long getMaxFileLengthBytes() {
         return 0;
     }
+
+    @Override
+    public int getImportBatchSize() {
+        return 0;
+    }
+
+    @Override
+    public int getImportThreads() {
+        return 1;
+    }
+
+    @Override
+    public long getDebounceQuietMillis() {
+        return 0;
+    }
+
+    @Override
+    public long getDebounceMaxLatencyMillis() {
+        return 0;
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Open Web IT B.V. (https://www.openweb.nl/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.openweb.hippo.groovy.watch;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathTrieTest {
+
+    @Test
+    void getLongestPrefix() {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.put(Path.of("/project/module/src/main/scripts"), "scripts");
+        trie.put(Path.of("/project/module/src/main/scripts/sub"), "sub");
+        trie.put(Path.of("/project/other/src/main/resources"), "resources");
+
+        assertEquals("scripts", trie.getLongestPrefix(Path.of("/project/module/src/main/scripts")));
+        assertEquals("scripts", trie.getLongestPrefix(Path.of("/project/module/src/main/scripts/subdir/a")));
+        assertEquals("sub", trie.getLongestPrefix(Path.of("/project/module/src/main/scripts/sub/deep")));
+        assertEquals("resources", trie.getLongestPrefix(Path.of("/project/other/src/main/resources/a.groovy")));
+        assertNull(trie.getLongestPrefix(Path.of("/project/module/src/main")));
+        assertNull(trie.getLongestPrefix(Path.of("/elsewhere")));
+    }
+}